@@ -0,0 +1,101 @@
+package com.example.queuectl.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Wire format between the daemon and {@link QueueCtlClient}, deliberately free of Spring.
+ * <p>
+ * A request is one UTF-8 line using the shell's own syntax: {@code enqueue <json>}, {@code status},
+ * {@code list [state]} or {@code ping}. A response is a header line {@code OK <n>} or {@code ERR <n>}
+ * followed by exactly {@code n} bytes of UTF-8 payload. Requests may be pipelined; responses come
+ * back in request order.
+ */
+public final class Protocol {
+
+    public static final class Response {
+        public final boolean ok;
+        public final String payload;
+        Response(boolean ok, String payload) {
+            this.ok = ok;
+            this.payload = payload;
+        }
+    }
+
+    private Protocol() {}
+
+    /** {@code $TMPDIR/queuectl-<user>/queuectl.sock}; the daemon creates the directory private to its owner. */
+    public static Path defaultSocket() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), "queuectl-" + System.getProperty("user.name"), "queuectl.sock");
+    }
+
+    public static void writeResponse(OutputStream out, boolean ok, String payload) throws IOException {
+        byte[] body = (payload == null ? "" : payload).getBytes(StandardCharsets.UTF_8);
+        out.write(((ok ? "OK " : "ERR ") + body.length + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+    }
+
+    /** Returns null at end of stream. */
+    public static Response readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (header.size() == 0) return null;
+                throw new EOFException("Truncated response header");
+            }
+            header.write(b);
+        }
+        String h = header.toString(StandardCharsets.US_ASCII);
+        int sp = h.indexOf(' ');
+        if (sp < 0) throw new IOException("Malformed response header: " + h);
+        int len = Integer.parseInt(h.substring(sp + 1));
+        byte[] body = in.readNBytes(len);
+        if (body.length != len) throw new EOFException("Truncated response body");
+        return new Response(h.startsWith("OK"), new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streams over a blocking channel that, unlike {@code Channels.newInputStream}, do not share the
+     * channel's blocking lock, so one thread can read while another writes.
+     */
+    public static InputStream in(SocketChannel ch) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                int n = read(one, 0, 1);
+                return n < 0 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                return ch.read(ByteBuffer.wrap(b, off, len));
+            }
+        };
+    }
+
+    public static OutputStream out(SocketChannel ch) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.queuectl.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thin client for a running {@code daemon start}; starts in milliseconds because it loads neither
+ * Spring nor JDBC.
+ * <pre>
+ *   QueueCtlClient [--socket path] enqueue '{"id":"job1","command":"echo hi"}'
+ *   QueueCtlClient [--socket path] status
+ *   QueueCtlClient [--socket path] -        # one request per stdin line, pipelined
+ * </pre>
+ * Exits 1 if any request failed, 2 if the daemon could not be reached.
+ */
+public final class QueueCtlClient {
+
+    private QueueCtlClient() {}
+
+    public static void main(String[] args) throws Exception {
+        Path socket = Protocol.defaultSocket();
+        int i = 0;
+        if (args.length >= 2 && args[0].equals("--socket")) {
+            socket = Paths.get(args[1]);
+            i = 2;
+        }
+        if (i >= args.length) {
+            System.err.println("usage: QueueCtlClient [--socket path] (enqueue <json> | status | list [state] | ping | -)");
+            System.exit(2);
+        }
+        String single = args[i].equals("-") ? null : String.join(" ", java.util.Arrays.copyOfRange(args, i, args.length));
+
+        SocketChannel ch;
+        try {
+            ch = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            System.err.println("queuectl daemon not reachable at " + socket + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        boolean failed = false;
+        try (ch) {
+            AtomicReference<Exception> writeError = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    OutputStream out = new BufferedOutputStream(Protocol.out(ch), 64 * 1024);
+                    if (single != null) {
+                        writeRequest(out, single);
+                    } else {
+                        BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                        String line;
+                        while ((line = stdin.readLine()) != null) {
+                            if (line.isBlank() || line.trim().startsWith("#")) continue;
+                            writeRequest(out, line.trim());
+                        }
+                    }
+                    out.flush();
+                    // half-close: the daemon answers what it has and then closes, ending the read loop below
+                    ch.shutdownOutput();
+                } catch (Exception e) {
+                    writeError.set(e);
+                }
+            }, "queuectl-client-writer");
+            writer.start();
+
+            InputStream in = new BufferedInputStream(Protocol.in(ch), 64 * 1024);
+            Protocol.Response r;
+            while ((r = Protocol.readResponse(in)) != null) {
+                if (r.ok) {
+                    System.out.println(r.payload);
+                } else {
+                    failed = true;
+                    System.err.println(r.payload);
+                }
+            }
+            writer.join();
+            if (writeError.get() != null) throw writeError.get();
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static void writeRequest(OutputStream out, String request) throws IOException {
+        // requests are line-delimited; JSON tolerates the newline-to-space rewrite
+        out.write(request.replace('\n', ' ').replace('\r', ' ').getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
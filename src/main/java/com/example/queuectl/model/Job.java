@@ -1,8 +1,11 @@
 package com.example.queuectl.model;
 
+import com.example.queuectl.util.Jsons;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.IOException;
 import java.time.Instant;
+import java.util.List;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Job {
@@ -19,14 +22,46 @@ public class Job {
     @JsonProperty("run_at")
     public Instant runAt;
     public int priority = 0;
+    /** Optional completion target; only the {@code edf} scheduling policy orders by it. */
+    public Instant deadline;
+    /** Optional rlimits applied when the command is launched (Unix only); null means unlimited. */
+    @JsonProperty("cpu_limit_sec")
+    public Integer cpuLimitSec;
+    @JsonProperty("memory_limit_mb")
+    public Integer memoryLimitMb;
+    @JsonProperty("open_files_limit")
+    public Integer openFilesLimit;
+    /** Backoff chosen at the last failure; the decorrelated strategy derives the next one from it. */
+    @JsonProperty("last_delay_sec")
+    public long lastDelaySec = 0;
     @JsonProperty("last_error")
     public String lastError;
     @JsonProperty("worker_id")
     public String workerId;
+    /** Ids of jobs that must complete before this one is claimable; only read at enqueue. */
+    public List<String> parents;
+    @JsonProperty("unresolved_parents")
+    public int unresolvedParents = 0;
 
     public Job() {}
     public Job(String id, String command) {
         this.id = id;
         this.command = command;
     }
+
+    /**
+     * A job from the JSON argument of {@code enqueue}, with one pair of surrounding quotes removed (the
+     * interactive shell strips them, script lines and daemon requests still carry them). Malformed JSON
+     * throws {@link IOException}; a missing id or command throws {@link IllegalArgumentException}.
+     */
+    public static Job fromJson(String arg) throws IOException {
+        arg = arg.trim();
+        if (arg.length() >= 2 && (arg.charAt(0) == '\'' || arg.charAt(0) == '"') && arg.charAt(arg.length() - 1) == arg.charAt(0)) {
+            arg = arg.substring(1, arg.length() - 1);
+        }
+        Job j = Jsons.mapper().readValue(arg, Job.class);
+        if (j.id == null || j.id.isBlank()) throw new IllegalArgumentException("id is required");
+        if (j.command == null || j.command.isBlank()) throw new IllegalArgumentException("command is required");
+        return j;
+    }
 }
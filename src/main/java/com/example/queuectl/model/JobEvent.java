@@ -0,0 +1,39 @@
+package com.example.queuectl.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * One state transition from the append-only {@code job_events} log. {@code seq} is assigned by the
+ * store and is the cursor consumers resume from; {@code fromState} is null for new jobs.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobEvent {
+    public long seq;
+    @JsonProperty("job_id")
+    public String jobId;
+    public JobEventType type;
+    @JsonProperty("from_state")
+    public JobState fromState;
+    @JsonProperty("to_state")
+    public JobState toState;
+    @JsonProperty("worker_id")
+    public String workerId;
+    public String detail;
+    public Instant at = Instant.now();
+
+    public JobEvent() {}
+    public JobEvent(String jobId, JobEventType type, JobState fromState, JobState toState, Instant at) {
+        this.jobId = jobId;
+        this.type = type;
+        this.fromState = fromState;
+        this.toState = toState;
+        this.at = at;
+    }
+
+    public JobEvent by(String workerId) {
+        this.workerId = workerId;
+        return this;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.queuectl.model;
+
+public enum JobEventType {
+    enqueued, claimed, completed, failed, dead, retried
+}
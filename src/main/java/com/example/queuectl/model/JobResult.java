@@ -0,0 +1,64 @@
+package com.example.queuectl.model;
+
+import com.example.queuectl.util.Compression;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/** Captured output of a job's last run, stored in {@code job_results} away from the hot jobs table. */
+public class JobResult {
+    public static final String RAW = "raw";
+    public static final String DEFLATE = "deflate";
+    /** Short outputs are not worth the deflate header and CPU. */
+    private static final int MIN_DEFLATE_BYTES = 256;
+    /** Default cap on stored output; the tail is kept since that is where failures show up. */
+    public static final int DEFAULT_MAX_BYTES = 1 << 20;
+
+    public String jobId;
+    public String codec;
+    public int originalBytes;
+    public byte[] data;
+    public Instant updatedAt = Instant.now();
+
+    public JobResult() {}
+
+    public static JobResult of(String jobId, String output) {
+        return of(jobId, output, DEFAULT_MAX_BYTES);
+    }
+
+    /** As {@link #of(String, String)}, keeping only the last {@code maxBytes} of output behind a truncation marker. */
+    public static JobResult of(String jobId, String output, int maxBytes) {
+        JobResult r = new JobResult();
+        r.jobId = jobId;
+        byte[] raw = tail((output == null ? "" : output).getBytes(StandardCharsets.UTF_8), maxBytes);
+        r.originalBytes = raw.length;
+        r.codec = RAW;
+        r.data = raw;
+        if (raw.length >= MIN_DEFLATE_BYTES) {
+            byte[] packed = Compression.deflate(raw);
+            if (packed.length < raw.length) {
+                r.codec = DEFLATE;
+                r.data = packed;
+            }
+        }
+        return r;
+    }
+
+    private static byte[] tail(byte[] raw, int maxBytes) {
+        if (raw.length <= maxBytes) return raw;
+        int from = raw.length - maxBytes;
+        // don't start in the middle of a UTF-8 sequence
+        while (from < raw.length && (raw[from] & 0xC0) == 0x80) from++;
+        byte[] marker = ("[" + from + " bytes truncated]\n").getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[marker.length + raw.length - from];
+        System.arraycopy(marker, 0, out, 0, marker.length);
+        System.arraycopy(raw, from, out, marker.length, raw.length - from);
+        return out;
+    }
+
+    public String output() {
+        if (data == null) return null;
+        if (RAW.equals(codec)) return new String(data, StandardCharsets.UTF_8);
+        if (DEFLATE.equals(codec)) return new String(Compression.inflate(data, originalBytes), StandardCharsets.UTF_8);
+        throw new IllegalStateException("Unknown output codec: " + codec);
+    }
+}
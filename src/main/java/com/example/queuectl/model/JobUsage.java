@@ -0,0 +1,88 @@
+package com.example.queuectl.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Resources one run of a job used, one {@code job_usage} row per attempt. CPU and memory are sampled
+ * from {@code /proc} for the whole process tree and are null where that is unavailable.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobUsage {
+    @JsonProperty("job_id")
+    public String jobId;
+    public int attempt;
+    /** What {@code stats} groups by; see {@link #commandKey}. */
+    @JsonProperty("command_key")
+    public String commandKey;
+    @JsonProperty("exit_code")
+    public int exitCode;
+    @JsonProperty("wall_ms")
+    public long wallMs;
+    @JsonProperty("cpu_user_ms")
+    public Long cpuUserMs;
+    @JsonProperty("cpu_sys_ms")
+    public Long cpuSysMs;
+    @JsonProperty("peak_rss_kb")
+    public Long peakRssKb;
+    @JsonProperty("output_bytes")
+    public long outputBytes;
+    @JsonProperty("finished_at")
+    public Instant finishedAt = Instant.now();
+
+    /** A copy attributed to {@code attempt} of {@code jobId}; the original is left as the worker sent it. */
+    public JobUsage forAttempt(String jobId, int attempt) {
+        JobUsage u = new JobUsage();
+        u.jobId = jobId;
+        u.attempt = attempt;
+        u.commandKey = commandKey;
+        u.exitCode = exitCode;
+        u.wallMs = wallMs;
+        u.cpuUserMs = cpuUserMs;
+        u.cpuSysMs = cpuSysMs;
+        u.peakRssKb = peakRssKb;
+        u.outputBytes = outputBytes;
+        u.finishedAt = finishedAt;
+        return u;
+    }
+
+    /** A file an interpreter runs, as opposed to a file a program works on. */
+    private static final Pattern SCRIPT = Pattern.compile("[\\w.+-]+\\.(py|rb|pl|php|js|mjs|ts|sh|bash|jar|lua|R|groovy)");
+    /** A subcommand such as {@code nightly} or {@code sync-users}: letters only, so no ids, counts or dates. */
+    private static final Pattern SUBCOMMAND = Pattern.compile("[A-Za-z][A-Za-z_-]*");
+
+    /**
+     * The program a command runs and what it runs: its first word after any {@code VAR=value} prefixes,
+     * without the directory, plus the first argument that is not a flag when that is a subcommand word
+     * or a script. {@code python3 /opt/etl.py -v} becomes {@code python3 etl.py} and {@code ./backup.sh nightly}
+     * {@code backup.sh nightly}, but {@code ./thumb.sh 42} and {@code convert /data/in.png} are just the
+     * program, so per-job ids, numbers and data paths do not split the stats. An argument that is quoted
+     * or holds shell syntax is left out too, so {@code sh -c '...'} is just {@code sh}.
+     */
+    public static String commandKey(String command) {
+        if (command == null) return "";
+        String program = null;
+        for (String word : command.trim().split("\\s+")) {
+            if (program == null) {
+                if (word.isEmpty() || word.matches("[A-Za-z_][A-Za-z0-9_]*=.*")) continue;
+                program = baseName(word);
+                continue;
+            }
+            if (word.startsWith("-")) continue;
+            String arg = baseName(word);
+            if (SCRIPT.matcher(arg).matches() || (arg.equals(word) && SUBCOMMAND.matcher(word).matches())) {
+                program = program + " " + arg;
+            }
+            break;
+        }
+        if (program == null) return "";
+        return program.length() > 255 ? program.substring(0, 255) : program;
+    }
+
+    private static String baseName(String word) {
+        String name = word.substring(word.lastIndexOf('/') + 1);
+        return name.isEmpty() ? word : name;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.queuectl.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A recurring job definition. Exactly one of {@code cron} or {@code intervalSec} is set;
+ * each occurrence is materialized into {@code jobs} as {@code <id>-<epochSecond>}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Schedule {
+    public String id;
+    public String command;
+    public String cron;
+    @JsonProperty("interval_sec")
+    public Integer intervalSec;
+    public int priority = 0;
+    @JsonProperty("max_retries")
+    public int maxRetries = 3;
+    public boolean enabled = true;
+    @JsonProperty("created_at")
+    public Instant createdAt = Instant.now();
+
+    public Schedule() {}
+    public Schedule(String id, String command) {
+        this.id = id;
+        this.command = command;
+    }
+
+    /** True when both definitions would fire the same command at the same times. */
+    public boolean sameDefinition(Schedule o) {
+        return o != null
+                && Objects.equals(command, o.command)
+                && Objects.equals(cron, o.cron)
+                && Objects.equals(intervalSec, o.intervalSec)
+                && Objects.equals(createdAt, o.createdAt)
+                && priority == o.priority
+                && maxRetries == o.maxRetries
+                && enabled == o.enabled;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.queuectl.model;
+
+/** {@link JobUsage} aggregated over one command key. */
+public class UsageStats {
+    public String commandKey;
+    public long runs;
+    public long failures;
+    public long avgWallMs;
+    public long maxWallMs;
+    public long avgCpuMs;
+    public long totalCpuMs;
+    public long maxPeakRssKb;
+    public long avgOutputBytes;
+}
@@ -0,0 +1,24 @@
+package com.example.queuectl.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/** A registered worker thread, as recorded in the {@code workers} table. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkerInfo {
+    @JsonProperty("worker_id")
+    public String workerId;
+    @JsonProperty("node_id")
+    public String nodeId;
+    @JsonProperty("started_at")
+    public Instant startedAt;
+    @JsonProperty("heartbeat_at")
+    public Instant heartbeatAt;
+    @JsonProperty("jobs_done")
+    public long jobsDone;
+    @JsonProperty("jobs_failed")
+    public long jobsFailed;
+
+    public WorkerInfo() {}
+}
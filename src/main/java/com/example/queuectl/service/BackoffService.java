@@ -2,15 +2,82 @@ package com.example.queuectl.service;
 
 import org.springframework.stereotype.Service;
 
+import java.util.Random;
+
+/**
+ * Retry delays. {@code exponential} is the deterministic {@code base^attempts}; the jittered
+ * strategies spread jobs that failed together so they do not all retry in the same second.
+ * Every strategy is capped at {@code maxSec}.
+ */
 @Service
 public class BackoffService {
+
+    public enum Strategy {
+        /** {@code min(max, base^attempts)}. */
+        exponential,
+        /** Uniform in {@code [0, min(max, base^attempts)]}. */
+        full_jitter,
+        /** Uniform in {@code [base, 3 * previous delay]}, capped; independent of the attempt count. */
+        decorrelated;
+
+        public static Strategy of(String name) {
+            try {
+                return valueOf(name.trim().toLowerCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown backoff_strategy: " + name + " (exponential, full_jitter or decorrelated)");
+            }
+        }
+    }
+
+    static final long DEFAULT_MAX_SEC = 24L * 3600;
+
+    private final Strategy strategy;
+    private final long maxSec;
+    private final Random random;
+
+    public BackoffService() {
+        this(Strategy.exponential, DEFAULT_MAX_SEC);
+    }
+
+    public BackoffService(Strategy strategy, long maxSec) {
+        this(strategy, maxSec, new Random());
+    }
+
+    BackoffService(Strategy strategy, long maxSec, Random random) {
+        if (maxSec < 1) throw new IllegalArgumentException("backoff_max_sec must be positive");
+        this.strategy = strategy;
+        this.maxSec = maxSec;
+        this.random = random;
+    }
+
+    public Strategy strategy() { return strategy; }
+
     public long delaySeconds(int base, int attempts) {
         long b = Math.max(1, base);
         long d = 1;
         for (int i = 0; i < attempts; i++) {
-            if (d > (24L*3600)/b) { return 24L*3600; }
+            if (d > maxSec / b) { return maxSec; }
             d *= b;
         }
-        return d;
+        return Math.min(d, maxSec);
+    }
+
+    /** Delay before retry number {@code attempts}; {@code previousSec} is the delay chosen last time (0 if none). */
+    public long delaySeconds(int base, int attempts, long previousSec) {
+        switch (strategy) {
+            case full_jitter:
+                return uniform(0, delaySeconds(base, attempts));
+            case decorrelated: {
+                long lo = Math.min(Math.max(1, base), maxSec);
+                long hi = Math.min(maxSec, Math.max(lo, previousSec) * 3);
+                return uniform(lo, hi);
+            }
+            default:
+                return delaySeconds(base, attempts);
+        }
+    }
+
+    private long uniform(long lo, long hi) {
+        return hi <= lo ? lo : lo + (long) (random.nextDouble() * (hi - lo + 1));
     }
 }
@@ -1,55 +1,300 @@
 package com.example.queuectl.service;
 
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobResult;
+import com.example.queuectl.model.JobUsage;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CommandRunner {
 
+    /** Exit status of a process killed by SIGXCPU, which {@code ulimit -t} sends. */
+    private static final int EXIT_CPU_LIMIT = 128 + 24;
+    /**
+     * How often the process tree is sampled for CPU and memory while a job runs: every
+     * {@value #SAMPLE_MS} ms for the first {@value #FAST_SAMPLING_MS} ms, so short jobs get a reading,
+     * then every {@value #SLOW_SAMPLE_MS} ms.
+     */
+    private static final long SAMPLE_MS = 100;
+    private static final long FAST_SAMPLING_MS = 2000;
+    private static final long SLOW_SAMPLE_MS = 1000;
+
     public static final class Result {
         public final int exitCode;
         public final String output;
+        /** Resources the run used; null if the process could not be started. */
+        public final JobUsage usage;
         public Result(int exitCode, String output) {
+            this(exitCode, output, null);
+        }
+        public Result(int exitCode, String output, JobUsage usage) {
             this.exitCode = exitCode;
             this.output = output;
+            this.usage = usage;
+        }
+    }
+
+    /** Per-job rlimits applied with {@code ulimit} before the command starts; null fields are unlimited. Unix only. */
+    public static final class Limits {
+        public static final Limits NONE = new Limits(null, null, null);
+
+        public final Integer cpuSec;
+        public final Integer memoryMb;
+        public final Integer openFiles;
+
+        public Limits(Integer cpuSec, Integer memoryMb, Integer openFiles) {
+            this.cpuSec = cpuSec;
+            this.memoryMb = memoryMb;
+            this.openFiles = openFiles;
+        }
+
+        public static Limits of(Job j) {
+            return new Limits(j.cpuLimitSec, j.memoryLimitMb, j.openFilesLimit);
+        }
+
+        boolean isEmpty() {
+            return cpuSec == null && memoryMb == null && openFiles == null;
+        }
+
+        /** Shell prelude; a limit that cannot be set fails the job rather than running it unbounded. */
+        String prelude() {
+            StringBuilder sb = new StringBuilder();
+            if (cpuSec != null) sb.append("ulimit -t ").append(cpuSec).append(" || exit 126\n");
+            if (memoryMb != null) sb.append("ulimit -v ").append(memoryMb * 1024L).append(" || exit 126\n");
+            if (openFiles != null) sb.append("ulimit -n ").append(openFiles).append(" || exit 126\n");
+            return sb.toString();
         }
     }
 
+    private volatile long killGraceMs = 5000;
+    private volatile int maxOutputBytes = JobResult.DEFAULT_MAX_BYTES;
+
+    /** How long a timed-out process tree gets between SIGTERM and SIGKILL. */
+    public void setKillGraceSeconds(int seconds) {
+        this.killGraceMs = Math.max(0, seconds) * 1000L;
+    }
+
+    /**
+     * Cap on the output kept per run; beyond it only the first and last bytes are held while reading.
+     * Matches {@code max_output_bytes}, so {@link JobResult#of(String, String, int)} need not cut again.
+     */
+    public void setMaxOutputBytes(int maxBytes) {
+        this.maxOutputBytes = Math.max(0, maxBytes);
+    }
+
     public Result run(String command, int timeoutSeconds) {
+        return run(command, timeoutSeconds, Limits.NONE);
+    }
+
+    public Result run(String command, int timeoutSeconds, Limits limits) {
         boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
         ProcessBuilder pb = windows
                 ? new ProcessBuilder("cmd.exe", "/c", command)
-                : new ProcessBuilder("/bin/sh", "-lc", command);
+                : new ProcessBuilder("/bin/sh", "-lc", limits.isEmpty() ? command : limits.prelude() + command);
         pb.redirectErrorStream(true);
         try {
+            long started = System.nanoTime();
             Process p = pb.start();
+            AtomicLong outputBytes = new AtomicLong();
+            ProcessTreeSampler sampler = ProcessTreeSampler.available() ? new ProcessTreeSampler(p.toHandle()) : null;
             ExecutorService pool = Executors.newSingleThreadExecutor();
+            OutputCapture capture = new OutputCapture(maxOutputBytes);
             Future<String> outFut = pool.submit(() -> {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                    StringBuilder sb = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        sb.append(line).append(System.lineSeparator());
-                    }
-                    return sb.toString();
+                try (InputStream in = counting(p.getInputStream(), outputBytes)) {
+                    byte[] buf = new byte[8192];
+                    int n;
+                    while ((n = in.read(buf)) != -1) capture.write(buf, 0, n);
                 }
+                return capture.text();
             });
-            boolean finished = p.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            boolean finished = waitSampling(p, sampler, started + TimeUnit.SECONDS.toNanos(timeoutSeconds));
             if (!finished) {
-                p.destroyForcibly();
+                int killed = killTree(p, killGraceMs);
                 pool.shutdownNow();
-                return new Result(124, "Timed out after " + timeoutSeconds + "s");
+                return new Result(124, "Timed out after " + timeoutSeconds + "s (terminated " + killed + " process(es))",
+                        usage(command, 124, started, sampler, outputBytes.get()));
             }
             int code = p.exitValue();
             String output = outFut.get(1, TimeUnit.SECONDS);
             pool.shutdown();
-            return new Result(code, output);
+            if (code == EXIT_CPU_LIMIT && limits.cpuSec != null) {
+                output += "Killed: CPU time limit of " + limits.cpuSec + "s exceeded" + System.lineSeparator();
+            }
+            return new Result(code, output, usage(command, code, started, sampler, outputBytes.get()));
         } catch (Exception e) {
             return new Result(127, e.getMessage());
         }
     }
+
+    /** Wait for {@code p} until {@code deadlineNanos}, sampling its tree in between; false on timeout. */
+    private static boolean waitSampling(Process p, ProcessTreeSampler sampler, long deadlineNanos) throws InterruptedException {
+        long slowFrom = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FAST_SAMPLING_MS);
+        while (true) {
+            if (sampler != null) sampler.sample();
+            long now = System.nanoTime();
+            long left = deadlineNanos - now;
+            if (left <= 0) return !p.isAlive();
+            long step = TimeUnit.MILLISECONDS.toNanos(sampler == null || now >= slowFrom ? SLOW_SAMPLE_MS : SAMPLE_MS);
+            if (p.waitFor(Math.min(left, step), TimeUnit.NANOSECONDS)) return true;
+        }
+    }
+
+    private static JobUsage usage(String command, int exitCode, long startedNanos, ProcessTreeSampler sampler, long outputBytes) {
+        JobUsage u = new JobUsage();
+        u.commandKey = JobUsage.commandKey(command);
+        u.exitCode = exitCode;
+        u.wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        u.outputBytes = outputBytes;
+        if (sampler != null) {
+            u.cpuUserMs = sampler.cpuUserMs();
+            u.cpuSysMs = sampler.cpuSysMs();
+            u.peakRssKb = sampler.peakRssKb();
+        }
+        return u;
+    }
+
+    /**
+     * Keeps at most {@code maxBytes} of a stream: its first half and its last half, with a
+     * {@code [N bytes truncated]} line standing in for what was dropped between them. Memory stays
+     * bounded however much a job prints.
+     */
+    static final class OutputCapture {
+        /** Room left for the marker, and for the CPU-limit note appended after a run. */
+        private static final int RESERVED = 128;
+
+        private final byte[] head;
+        private final byte[] tail;
+        private int headLen;
+        /** Bytes that went past the head; the last {@code tail.length} of them are in the ring. */
+        private long tailWritten;
+
+        OutputCapture(int maxBytes) {
+            int keep = Math.max(0, maxBytes - RESERVED);
+            head = new byte[keep / 2];
+            tail = new byte[keep - keep / 2];
+        }
+
+        void write(byte[] buf, int off, int len) {
+            int h = Math.min(len, head.length - headLen);
+            System.arraycopy(buf, off, head, headLen, h);
+            headLen += h;
+            off += h;
+            len -= h;
+            if (len == 0) return;
+            if (tail.length == 0) {
+                tailWritten += len;
+                return;
+            }
+            if (len > tail.length) {
+                // only the last tail.length bytes can survive
+                tailWritten += len - tail.length;
+                off += len - tail.length;
+                len = tail.length;
+            }
+            while (len > 0) {
+                int at = (int) (tailWritten % tail.length);
+                int n = Math.min(len, tail.length - at);
+                System.arraycopy(buf, off, tail, at, n);
+                tailWritten += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        String text() {
+            int tailLen = (int) Math.min(tailWritten, tail.length);
+            byte[] last = new byte[tailLen];
+            int start = (int) ((tailWritten - tailLen) % Math.max(1, tail.length));
+            for (int i = 0; i < tailLen; i++) last[i] = tail[(start + i) % tail.length];
+            long dropped = tailWritten - tailLen;
+            if (dropped == 0) {
+                byte[] all = new byte[headLen + tailLen];
+                System.arraycopy(head, 0, all, 0, headLen);
+                System.arraycopy(last, 0, all, headLen, tailLen);
+                return new String(all, StandardCharsets.UTF_8);
+            }
+            // cut at character boundaries on both sides of the gap
+            int headEnd = completeUtf8Prefix(head, headLen);
+            int tailFrom = 0;
+            while (tailFrom < tailLen && (last[tailFrom] & 0xC0) == 0x80) tailFrom++;
+            dropped += (headLen - headEnd) + tailFrom;
+            return new String(head, 0, headEnd, StandardCharsets.UTF_8)
+                    + (headEnd > 0 && head[headEnd - 1] != '\n' ? "\n" : "")
+                    + "[" + dropped + " bytes truncated]\n"
+                    + new String(last, tailFrom, tailLen - tailFrom, StandardCharsets.UTF_8);
+        }
+
+        /** Length of {@code b[0, len)} without a multi-byte sequence cut off at its end. */
+        private static int completeUtf8Prefix(byte[] b, int len) {
+            int i = len - 1;
+            while (i >= 0 && len - i < 4 && (b[i] & 0xC0) == 0x80) i--;
+            if (i < 0) return len;
+            int lead = b[i] & 0xFF;
+            int need = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+            return len - i >= need ? len : i;
+        }
+    }
+
+    private static InputStream counting(InputStream in, AtomicLong count) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) count.incrementAndGet();
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) count.addAndGet(n);
+                return n;
+            }
+        };
+    }
+
+    /**
+     * SIGTERM the process and every descendant, wait up to {@code graceMs} for them to exit, then
+     * SIGKILL whatever is left. Returns how many processes were signalled.
+     */
+    static int killTree(Process p, long graceMs) {
+        // snapshot before signalling: once the shell exits its children are reparented out of descendants()
+        List<ProcessHandle> tree = new ArrayList<>();
+        p.descendants().forEach(tree::add);
+        tree.add(p.toHandle());
+        for (ProcessHandle h : tree) h.destroy();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMs);
+        for (ProcessHandle h : tree) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) break;
+            try {
+                h.onExit().get(left, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<ProcessHandle> survivors = new ArrayList<>();
+        for (ProcessHandle h : tree) {
+            if (!h.isAlive()) continue;
+            // children forked during the grace period
+            h.descendants().filter(d -> !tree.contains(d)).forEach(survivors::add);
+            survivors.add(h);
+        }
+        for (ProcessHandle h : survivors) h.destroyForcibly();
+        return (int) (tree.size() + survivors.stream().filter(h -> !tree.contains(h)).count());
+    }
 }
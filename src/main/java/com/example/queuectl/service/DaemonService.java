@@ -0,0 +1,273 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.client.Protocol;
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobState;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps this JVM's services resident behind a Unix domain socket so producers can enqueue, list and
+ * query status through {@link com.example.queuectl.client.QueueCtlClient} without booting Spring.
+ * One thread per connection; requests buffered on a connection are handled as a group, with runs of
+ * {@code enqueue} going through {@link JobService#enqueueAll} as one transaction.
+ * <p>
+ * Anyone who can connect can enqueue commands, so the socket only goes in a directory that is owned
+ * by the current user with mode {@code 0700}; nobody else can reach it between bind and the
+ * {@code 0600} chmod. An existing directory that fails that check is refused, and a stale socket is
+ * only removed when it belongs to the current user.
+ */
+@Service
+public class DaemonService {
+
+    /** Upper bound on requests handled (and enqueues batched) per read of a connection. */
+    private static final int MAX_PIPELINE = 1000;
+
+    private final JobService jobService;
+
+    private ServerSocketChannel server;
+    private Path socketPath;
+    private ExecutorService connections;
+
+    public DaemonService(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    public synchronized String start(Path socket) throws IOException {
+        if (server != null) return "Daemon already listening on " + socketPath;
+        Path dir = socket.toAbsolutePath().getParent();
+        String unsafe = createPrivateDirectory(dir);
+        if (unsafe != null) return "Not listening in " + dir + ": " + unsafe;
+        if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+            if (isListening(socket)) return "Another daemon is already listening on " + socket;
+            // left behind by a daemon that did not shut down cleanly
+            String foreign = notOurSocket(socket);
+            if (foreign != null) return "Not removing " + socket + ": " + foreign;
+            Files.delete(socket);
+        }
+        ServerSocketChannel ch = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        ch.bind(UnixDomainSocketAddress.of(socket));
+        if (posix(socket)) Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+        server = ch;
+        socketPath = socket;
+        connections = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "queuectl-daemon-conn");
+            t.setDaemon(true);
+            return t;
+        });
+        // non-daemon on purpose: keeps a non-interactive `daemon start` process alive
+        Thread acceptor = new Thread(() -> acceptLoop(ch), "queuectl-daemon");
+        acceptor.start();
+        return "Daemon listening on " + socket;
+    }
+
+    public synchronized String stop() {
+        if (server == null) return "Daemon not running.";
+        try {
+            server.close();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException ignored) {}
+        connections.shutdownNow();
+        server = null;
+        connections = null;
+        Path p = socketPath;
+        socketPath = null;
+        return "Daemon stopped (" + p + ").";
+    }
+
+    public synchronized boolean isRunning() { return server != null; }
+
+    private static boolean posix(Path p) {
+        return p.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static boolean isListening(Path socket) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (IOException stale) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates {@code dir} {@code 0700} if missing. Null if it is now a directory owned by this user
+     * that nobody else can enter, else why the socket must not go there.
+     */
+    static String createPrivateDirectory(Path dir) throws IOException {
+        if (dir == null) return "no parent directory";
+        if (!posix(dir)) {
+            Files.createDirectories(dir);
+            return null;
+        }
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } catch (FileAlreadyExistsException raced) {
+                // someone else created it first; the checks below decide whether it is usable
+            }
+        }
+        PosixFileAttributes attrs = Files.readAttributes(dir, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attrs.isDirectory()) return "not a directory";
+        if (!attrs.owner().equals(currentUser(dir))) return "owned by " + attrs.owner().getName();
+        if (!attrs.permissions().equals(PosixFilePermissions.fromString("rwx------"))) {
+            return "mode " + PosixFilePermissions.toString(attrs.permissions()) + ", expected rwx------";
+        }
+        return null;
+    }
+
+    private static UserPrincipal currentUser(Path p) throws IOException {
+        return p.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    /** Null if {@code socket} is a socket file owned by this user, else why it must be left alone. */
+    private static String notOurSocket(Path socket) throws IOException {
+        if (!posix(socket)) return null;
+        PosixFileAttributes attrs = Files.readAttributes(socket, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attrs.isOther()) return "not a socket";
+        if (!attrs.owner().equals(currentUser(socket))) return "owned by " + attrs.owner().getName();
+        return null;
+    }
+
+    public synchronized Path socketPath() { return socketPath; }
+
+    private void acceptLoop(ServerSocketChannel ch) {
+        while (ch.isOpen()) {
+            try {
+                SocketChannel conn = ch.accept();
+                connections.submit(() -> serve(conn));
+            } catch (IOException e) {
+                if (ch.isOpen()) System.err.println("daemon accept failed: " + e.getMessage());
+            } catch (RuntimeException rejectedAfterStop) {
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel ch) {
+        try (ch) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Protocol.in(ch), StandardCharsets.UTF_8), 64 * 1024);
+            OutputStream out = new BufferedOutputStream(Protocol.out(ch), 64 * 1024);
+            List<String> pending = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                pending.add(line.trim());
+                while (pending.size() < MAX_PIPELINE && in.ready() && (line = in.readLine()) != null) {
+                    pending.add(line.trim());
+                }
+                handle(pending, out);
+                out.flush();
+                pending.clear();
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private void handle(List<String> requests, OutputStream out) throws IOException {
+        int n = requests.size();
+        boolean[] ok = new boolean[n];
+        String[] payload = new String[n];
+
+        int i = 0;
+        while (i < n) {
+            if (!isEnqueue(requests.get(i))) {
+                try {
+                    payload[i] = execute(requests.get(i));
+                    ok[i] = true;
+                } catch (Exception e) {
+                    payload[i] = e.getMessage() == null ? e.toString() : e.getMessage();
+                }
+                i++;
+                continue;
+            }
+            // coalesce the run of enqueues into one batched insert
+            int end = i;
+            List<Job> batch = new ArrayList<>();
+            Map<String, Integer> slot = new HashMap<>();
+            while (end < n && isEnqueue(requests.get(end))) {
+                try {
+                    Job j = Job.fromJson(requests.get(end).substring("enqueue".length()));
+                    if (slot.putIfAbsent(j.id, end) != null) throw new IllegalArgumentException("Job id already exists: " + j.id);
+                    batch.add(j);
+                    ok[end] = true;
+                    payload[end] = "Enqueued " + j.id;
+                } catch (Exception e) {
+                    payload[end] = "Invalid job: " + e.getMessage();
+                }
+                end++;
+            }
+            try {
+                for (Map.Entry<String, String> rejected : jobService.enqueueAll(batch).entrySet()) {
+                    int at = slot.get(rejected.getKey());
+                    ok[at] = false;
+                    payload[at] = rejected.getValue();
+                }
+            } catch (Exception e) {
+                for (Job j : batch) {
+                    int at = slot.get(j.id);
+                    ok[at] = false;
+                    payload[at] = "Enqueue failed: " + e.getMessage();
+                }
+            }
+            i = end;
+        }
+
+        for (int k = 0; k < n; k++) Protocol.writeResponse(out, ok[k], payload[k]);
+    }
+
+    private static boolean isEnqueue(String request) {
+        return request.startsWith("enqueue ");
+    }
+
+    private String execute(String request) {
+        String[] parts = request.split("\\s+", 2);
+        switch (parts[0]) {
+            case "ping":
+                return "pong";
+            case "status": {
+                Map<JobState, Long> c = jobService.counts();
+                StringBuilder sb = new StringBuilder();
+                for (JobState s : JobState.values()) {
+                    long v = c.getOrDefault(s, 0L);
+                    if (s == JobState.dead) v += jobService.dlqCount();
+                    sb.append(s.name()).append(": ").append(v).append('\n');
+                }
+                return sb.toString().stripTrailing();
+            }
+            case "list": {
+                String state = parts.length > 1 ? parts[1].trim() : null;
+                StringBuilder sb = new StringBuilder();
+                for (Job j : jobService.listIncludingDlq(state)) {
+                    sb.append(j.id).append('\t')
+                      .append(j.state == null ? "dead" : j.state.name()).append('\t')
+                      .append(j.attempts).append('\t')
+                      .append(j.command).append('\n');
+                }
+                return sb.toString().stripTrailing();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown request: " + parts[0]);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.JobEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+/**
+ * Follows the event log past a seq cursor. {@code seq} is AUTO_INCREMENT, so a transaction can take
+ * seq 11 and commit after another one has committed 12; a reader that already moved past 12 never
+ * sees 11. The cursor remembers the holes it stepped over and re-reads from the oldest one, within
+ * the last {@value #REREAD_WINDOW} seqs, dropping events it has already returned. Holes older than
+ * that are given up on: they are rolled-back inserts, or commits too late for a live view.
+ */
+public class EventCursor {
+
+    static final int REREAD_WINDOW = 1000;
+
+    private final BiFunction<Long, Integer, List<JobEvent>> readEvents;
+    private final TreeSet<Long> holes = new TreeSet<>();
+    private long cursor;
+    private boolean more;
+
+    public EventCursor(BiFunction<Long, Integer, List<JobEvent>> readEvents, long cursor) {
+        this.readEvents = readEvents;
+        this.cursor = cursor;
+    }
+
+    /** Events not returned before, in read order; late commits come back with their lower seq. */
+    public List<JobEvent> read(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be at least 1: " + limit);
+        long seen = cursor;
+        long from = holes.isEmpty() ? cursor : holes.first() - 1;
+        List<JobEvent> fresh = new ArrayList<>();
+        while (true) {
+            List<JobEvent> page = readEvents.apply(from, limit);
+            for (JobEvent e : page) {
+                if (e.seq <= cursor) {
+                    if (holes.remove(e.seq)) fresh.add(e);
+                    continue;
+                }
+                for (long s = Math.max(cursor + 1, e.seq - REREAD_WINDOW); s < e.seq; s++) holes.add(s);
+                cursor = e.seq;
+                fresh.add(e);
+            }
+            more = page.size() == limit;
+            // pages that stay inside the re-read window only fill holes; keep going until one gets past it
+            if (!more || page.get(page.size() - 1).seq > seen) break;
+            from = page.get(page.size() - 1).seq;
+        }
+        holes.headSet(cursor - REREAD_WINDOW, true).clear();
+        return fresh;
+    }
+
+    /** Whether the last {@link #read} filled its page, so more rows may be waiting. */
+    public boolean more() {
+        return more;
+    }
+
+    public long cursor() {
+        return cursor;
+    }
+}
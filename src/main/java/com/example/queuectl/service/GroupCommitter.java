@@ -0,0 +1,149 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.JobUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind batching for complete/fail transitions. Callers submit a {@link Transition} and wait
+ * on its future; a single flusher thread collects transitions for up to {@code windowMs} (or until
+ * {@code maxBatch} are queued) and applies them as one store transaction, then acknowledges them all.
+ * If the flusher is interrupted it stops, and every transition it has not applied yet is applied by
+ * its own caller instead.
+ */
+class GroupCommitter {
+
+    /** A complete ({@code success}) or fail transition for one job, sent by the worker that claimed it. */
+    static final class Transition {
+        final String jobId;
+        final String workerId;
+        final boolean success;
+        final int base;
+        final String error;
+        final String output;
+        final JobUsage usage;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Transition(String jobId, String workerId, boolean success, int base, String error, String output) {
+            this(jobId, workerId, success, base, error, output, null);
+        }
+
+        Transition(String jobId, String workerId, boolean success, int base, String error, String output, JobUsage usage) {
+            this.jobId = jobId;
+            this.workerId = workerId;
+            this.success = success;
+            this.base = base;
+            this.error = error;
+            this.output = output;
+            this.usage = usage;
+        }
+    }
+
+    private final LinkedBlockingQueue<Transition> queue = new LinkedBlockingQueue<>();
+    private final Consumer<List<Transition>> apply;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    GroupCommitter(Consumer<List<Transition>> apply, int windowMs, int maxBatch) {
+        this.apply = apply;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowMs));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.flusher = new Thread(this::run, "queuectl-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /** Queue a transition and block until the batch containing it has committed. */
+    void submitAndWait(Transition t) {
+        boolean queued;
+        synchronized (this) {
+            queued = running && queue.add(t);
+        }
+        if (queued) {
+            try {
+                t.done.join();
+                return;
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof RejectedExecutionException)) throw e;
+                // the flusher stopped before applying it
+            }
+        }
+        // closed: the flusher may already be gone, so apply inline
+        apply.accept(List.of(t));
+    }
+
+    /** Stop accepting new work, flush what is queued and wait for the flusher to exit. */
+    void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Apply the batch; if it fails, apply its transitions one by one so one bad entry fails only itself. */
+    private void flush(List<Transition> batch) {
+        try {
+            apply.accept(batch);
+            for (Transition t : batch) t.done.complete(null);
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).done.completeExceptionally(e);
+                return;
+            }
+        }
+        for (Transition t : batch) {
+            try {
+                apply.accept(List.of(t));
+                t.done.complete(null);
+            } catch (Exception e) {
+                t.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void run() {
+        List<Transition> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Transition first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    Transition t = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (t == null) break;
+                    batch.add(t);
+                }
+            } catch (InterruptedException e) {
+                // every poll would now throw at once: stop and hand the unapplied work back
+                synchronized (this) {
+                    running = false;
+                }
+                queue.drainTo(batch);
+                RejectedExecutionException stopped = new RejectedExecutionException("group commit flusher interrupted");
+                for (Transition t : batch) t.done.completeExceptionally(stopped);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) continue;
+            flush(batch);
+            batch.clear();
+        }
+    }
+}
@@ -1,25 +1,57 @@
 package com.example.queuectl.service;
 
 import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobResult;
 import com.example.queuectl.model.JobState;
+import com.example.queuectl.model.JobUsage;
+import com.example.queuectl.model.UsageStats;
+import com.example.queuectl.storage.ClaimScan;
 import com.example.queuectl.storage.StorePort;
 import com.example.queuectl.util.Clock;
+import com.example.queuectl.util.Partitions;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
 public class JobService {
 
+    /** Candidates fetched per claim attempt; losers of the compare-and-set fall through to the next. */
+    private static final int CLAIM_BATCH = 8;
+
     private final StorePort store;
     private final Clock clock = new Clock();
     private final ReentrantLock opLock = new ReentrantLock(true);
+    private volatile GroupCommitter groupCommitter;
+    private final JobWaiters waiters;
+    private volatile SchedulingPolicy policy = new SchedulingPolicy.StrictPriority();
+    private volatile BackoffService backoff = new BackoffService();
+    /** Null when retries are unbudgeted; only used under {@link #opLock}. */
+    private RetryBudget retryBudget;
+
+    /** Job counts by state (DLQ included in {@code dead}) and the event cursor they are consistent with. */
+    public static final class StatusSnapshot {
+        public final Map<JobState, Long> counts;
+        public final long cursor;
+
+        StatusSnapshot(Map<JobState, Long> counts, long cursor) {
+            this.counts = counts;
+            this.cursor = cursor;
+        }
+    }
 
     public JobService(StorePort store) {
         this.store = store;
+        this.waiters = new JobWaiters(store::latestEventSeq, store::readEvents, this::find);
     }
 
     public Map<String,Object> config() { return store.loadConfig(); }
@@ -35,62 +67,245 @@ public class JobService {
     }
 
     public Job enqueue(Job j) {
+        checkLimits(j);
         opLock.lock();
         try {
-            List<Job> jobs = store.loadJobs();
-            boolean exists = jobs.stream().anyMatch(x -> x.id.equals(j.id));
-            if (exists) throw new IllegalArgumentException("Job id already exists: " + j.id);
             Instant now = clock.now();
             j.state = JobState.pending;
             j.createdAt = now;
             j.updatedAt = now;
-            jobs.add(j);
-            store.saveJobs(jobs);
+            // parents are read with row locks in the transaction that adds the edges, so a parent
+            // completing on another node either sees the edge or is seen as completed here
+            store.inTransaction(() -> {
+                String deadParent = resolveParents(j);
+                if (deadParent != null) {
+                    // a parent already failed permanently: the child can never run
+                    j.state = JobState.dead;
+                    j.lastError = "dependency failed: " + deadParent;
+                    if (store.findDlq(j.id).isPresent()) throw new IllegalArgumentException("Job id already exists: " + j.id);
+                    store.insertDlq(List.of(j));
+                    store.appendEvents(List.of(event(j, JobEventType.dead, null, now, j.lastError)));
+                    return;
+                }
+                if (!store.insertJob(j)) throw new IllegalArgumentException("Job id already exists: " + j.id);
+                if (j.parents != null && !j.parents.isEmpty()) store.saveDependencies(j.id, j.parents);
+                store.appendEvents(List.of(event(j, JobEventType.enqueued, null, now, null)));
+            });
             return j;
         } finally {
             opLock.unlock();
         }
     }
 
+    /**
+     * Enqueue {@code job} and complete the returned future with its final row once it is completed or
+     * dead (retries exhausted, or a parent died). Completions in this process are delivered directly;
+     * jobs finished by other nodes are picked up from the event log. Completes exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} after {@code timeout}, or with the enqueue error.
+     */
+    public CompletableFuture<Job> enqueueAndAwait(Job job, Duration timeout) {
+        // registered first so the event cursor predates the job's first event
+        CompletableFuture<Job> f = waiters.register(job.id);
+        try {
+            Job j = enqueue(job);
+            if (j.state == JobState.dead) waiters.fire(List.of(j));
+        } catch (RuntimeException e) {
+            f.completeExceptionally(e);
+        }
+        return f.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enqueue many jobs with one batched insert in a single transaction. Jobs with parents go through
+     * {@link #enqueue} afterwards, in order, so they may depend on jobs earlier in the same batch.
+     * Returns the rejected ids with the reason for each.
+     */
+    public Map<String, String> enqueueAll(List<Job> batch) {
+        Instant now = clock.now();
+        Map<String, String> rejected = new LinkedHashMap<>();
+        List<Job> plain = new ArrayList<>();
+        List<Job> withParents = new ArrayList<>();
+        for (Job j : batch) {
+            try {
+                checkLimits(j);
+            } catch (IllegalArgumentException e) {
+                rejected.put(j.id, e.getMessage());
+                continue;
+            }
+            j.state = JobState.pending;
+            j.createdAt = now;
+            j.updatedAt = now;
+            j.unresolvedParents = 0;
+            (j.parents == null || j.parents.isEmpty() ? plain : withParents).add(j);
+        }
+
+        opLock.lock();
+        try {
+            try {
+                store.inTransaction(() -> {
+                    Set<String> seen = new HashSet<>();
+                    for (Job existing : store.findJobs(plain.stream().map(j -> j.id).collect(Collectors.toList()))) {
+                        seen.add(existing.id);
+                    }
+                    List<Job> fresh = new ArrayList<>(plain.size());
+                    for (Job j : plain) {
+                        if (seen.add(j.id)) fresh.add(j); else rejected.put(j.id, "Job id already exists: " + j.id);
+                    }
+                    store.insertJobs(fresh);
+                    List<JobEvent> events = new ArrayList<>(fresh.size());
+                    for (Job j : fresh) events.add(event(j, JobEventType.enqueued, null, now, null));
+                    store.appendEvents(events);
+                });
+            } catch (IllegalArgumentException raced) {
+                // another node inserted one of these ids between the check and the insert
+                for (Job j : plain) rejected.remove(j.id);
+                for (Job j : plain) {
+                    try {
+                        store.inTransaction(() -> {
+                            if (!store.insertJob(j)) throw new IllegalArgumentException("Job id already exists: " + j.id);
+                            store.appendEvents(List.of(event(j, JobEventType.enqueued, null, now, null)));
+                        });
+                    } catch (IllegalArgumentException e) {
+                        rejected.put(j.id, e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            opLock.unlock();
+        }
+        for (Job j : withParents) {
+            try {
+                enqueue(j);
+            } catch (IllegalArgumentException e) {
+                rejected.put(j.id, e.getMessage());
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Count parents that have not completed yet into {@code j.unresolvedParents}, locking their rows;
+     * call inside the transaction that inserts the child's edges. Returns the id of a parent that is
+     * already dead, if any.
+     */
+    private String resolveParents(Job j) {
+        j.unresolvedParents = 0;
+        if (j.parents == null || j.parents.isEmpty()) return null;
+        Set<String> ids = new LinkedHashSet<>(j.parents);
+        Map<String, Job> live = new HashMap<>();
+        for (Job p : store.findJobsForUpdate(ids)) live.put(p.id, p);
+        for (String p : ids) {
+            Job parent = live.get(p);
+            if (parent != null) {
+                if (parent.state != JobState.completed) j.unresolvedParents++;
+                continue;
+            }
+            if (store.findDlq(p).isPresent()) return p;
+            throw new IllegalArgumentException("Unknown parent job: " + p);
+        }
+        return null;
+    }
+
     public List<Job> list(String stateFilter) {
-        List<Job> jobs = store.loadJobs();
-        if (stateFilter == null || stateFilter.isBlank()) return jobs;
-        JobState s = JobState.valueOf(stateFilter);
-        return jobs.stream().filter(j -> j.state == s).collect(Collectors.toList());
+        if (stateFilter == null || stateFilter.isBlank()) return store.listJobs(null);
+        return store.listJobs(JobState.valueOf(stateFilter));
     }
 
     public Map<JobState, Long> counts() {
-        return store.loadJobs().stream()
-                .collect(Collectors.groupingBy(j -> j.state, Collectors.counting()));
+        return store.countByState();
+    }
+
+    /** Full job row, falling back to the DLQ. */
+    public Optional<Job> find(String id) {
+        Optional<Job> j = store.findJob(id);
+        if (j.isPresent()) return j;
+        return store.findDlq(id);
+    }
+
+    /** One row per run of the job, oldest first. */
+    public List<JobUsage> usage(String id) {
+        return store.loadUsage(id);
+    }
+
+    /** Usage per command key for runs finished at or after {@code since}, most total CPU first. */
+    public List<UsageStats> usageStats(Instant since) {
+        return store.usageStats(since);
+    }
+
+    /** Output of the job's last run, decompressed; loaded only on demand. */
+    public Optional<JobResult> result(String id) {
+        return store.loadResult(id);
     }
 
     public List<Job> listDlq() { return store.loadDlq(); }
 
+    public StatusSnapshot statusSnapshot() {
+        Map<JobState, Long> counts = new EnumMap<>(JobState.class);
+        long[] cursor = new long[1];
+        // one transaction, so the counts and the cursor come from the same snapshot
+        store.inTransaction(() -> {
+            cursor[0] = store.latestEventSeq();
+            counts.putAll(store.countByState());
+            counts.merge(JobState.dead, store.dlqCount(), Long::sum);
+        });
+        return new StatusSnapshot(counts, cursor[0]);
+    }
+
+    public List<JobEvent> events(long afterSeq, int limit) {
+        return store.readEvents(afterSeq, limit);
+    }
+
+    public long latestEventSeq() {
+        return store.latestEventSeq();
+    }
+
+    private static void checkLimits(Job j) {
+        if ((j.cpuLimitSec != null && j.cpuLimitSec <= 0)
+                || (j.memoryLimitMb != null && j.memoryLimitMb <= 0)
+                || (j.openFilesLimit != null && j.openFilesLimit <= 0)) {
+            throw new IllegalArgumentException("Resource limits must be positive: " + j.id);
+        }
+    }
+
+    private static JobEvent event(Job j, JobEventType type, JobState from, Instant at, String detail) {
+        JobEvent e = new JobEvent(j.id, type, from, j.state, at);
+        e.detail = detail == null || detail.length() <= 255 ? detail : detail.substring(0, 255);
+        return e;
+    }
+
     public boolean dlqRetry(String id) {
         opLock.lock();
         try {
-            List<Job> dlq = store.loadDlq();
-            Optional<Job> opt = dlq.stream().filter(j -> j.id.equals(id)).findFirst();
+            Optional<Job> opt = store.findDlq(id);
             if (opt.isEmpty()) return false;
+            // the DLQ row carries the job's priority, deadline and limits, so the retried job keeps them
             Job j = opt.get();
-            dlq.remove(j);
-            store.saveDlq(dlq);
-
-            List<Job> jobs = store.loadJobs();
             j.state = JobState.pending;
             j.attempts = 0;
             j.runAt = null;
             j.lastError = null;
             j.updatedAt = clock.now();
-            jobs.add(j);
-            store.saveJobs(jobs);
+            // parents may still be dead; the child then waits until they are retried and complete
+            j.parents = store.loadParents(id);
+            store.inTransaction(() -> {
+                j.unresolvedParents = 0;
+                Map<String, Job> parents = new HashMap<>();
+                for (Job p : store.findJobsForUpdate(j.parents)) parents.put(p.id, p);
+                for (String p : j.parents) {
+                    Job parent = parents.get(p);
+                    if (parent == null || parent.state != JobState.completed) j.unresolvedParents++;
+                }
+                if (!store.deleteDlq(id)) throw new IllegalStateException("DLQ job vanished: " + id);
+                if (!store.insertJob(j)) throw new IllegalArgumentException("Job id already exists: " + id);
+                store.appendEvents(List.of(event(j, JobEventType.retried, JobState.dead, j.updatedAt, null)));
+            });
             return true;
         } finally {
             opLock.unlock();
         }
     }
     public long dlqCount() {
-        return listDlq().size();
+        return store.dlqCount();
     }
 
     // optional: list including DLQ when state == dead
@@ -104,78 +319,280 @@ public class JobService {
         return list(stateFilter);
     }
     public Optional<Job> claimNext(String workerId) {
+        return claimNext(workerId, 0, Partitions.SPACE);
+    }
+
+    /**
+     * Claim the best runnable job whose partition key lies in {@code [partLo, partHi)}, stealing from
+     * the whole key space when that range has nothing runnable. Claims are a compare-and-set on the
+     * row, so concurrent workers on any node never get the same job.
+     */
+    public Optional<Job> claimNext(String workerId, int partLo, int partHi) {
+        Instant now = clock.now();
+        Optional<Job> own = claimFrom(workerId, now, partLo, partHi);
+        if (own.isPresent() || (partLo == 0 && partHi == Partitions.SPACE)) return own;
+        return claimFrom(workerId, now, 0, Partitions.SPACE);
+    }
+
+    public void setSchedulingPolicy(SchedulingPolicy policy) {
+        this.policy = policy;
+    }
+
+    public SchedulingPolicy schedulingPolicy() { return policy; }
+
+    /**
+     * Backoff for failed jobs and an optional retry budget: {@code budgetRatio > 0} limits retries to
+     * that fraction of first attempts, with at least {@code budgetMinPerSec} allowed every second.
+     */
+    public void setRetryPolicy(BackoffService backoff, double budgetRatio, double budgetMinPerSec) {
+        RetryBudget budget = budgetRatio > 0 ? new RetryBudget(budgetRatio, budgetMinPerSec) : null;
         opLock.lock();
         try {
-            Instant now = clock.now();
-            List<Job> jobs = store.loadJobs();
-            Optional<Job> next = jobs.stream()
-                    .filter(j -> j.state == JobState.pending ||
-                                 (j.state == JobState.failed && (j.runAt == null || !j.runAt.isAfter(now))))
-                    .sorted(Comparator.<Job>comparingInt(j -> -j.priority)
-                            .thenComparing(j -> j.createdAt))
-                    .findFirst();
-
-            if (next.isEmpty()) return Optional.empty();
+            this.backoff = backoff;
+            this.retryBudget = budget;
+        } finally {
+            opLock.unlock();
+        }
+    }
 
-            Job job = next.get();
+    private Optional<Job> claimFrom(String workerId, Instant now, int partLo, int partHi) {
+        SchedulingPolicy p = policy;
+        List<Job> candidates;
+        if (p.scans().size() == 1) {
+            candidates = store.loadClaimCandidates(now, partLo, partHi, p.scans().get(0), CLAIM_BATCH);
+        } else {
+            Map<String, Job> merged = new LinkedHashMap<>();
+            for (ClaimScan scan : p.scans()) {
+                for (Job j : store.loadClaimCandidates(now, partLo, partHi, scan, CLAIM_BATCH)) merged.putIfAbsent(j.id, j);
+            }
+            candidates = new ArrayList<>(merged.values());
+        }
+        candidates.sort(p.order(now));
+        for (Job job : candidates) {
+            boolean[] won = {false};
+            store.inTransaction(() -> {
+                if (!store.tryClaim(job.id, job.updatedAt, workerId, now)) return;
+                won[0] = true;
+                JobEvent e = new JobEvent(job.id, JobEventType.claimed, job.state, JobState.processing, now);
+                e.workerId = workerId;
+                store.appendEvents(List.of(e));
+            });
+            if (!won[0]) continue;
+            // candidates are fetched without the text columns; only the winner needs its command
+            job.command = store.loadCommand(job.id);
             job.state = JobState.processing;
             job.workerId = workerId;
             job.updatedAt = now;
-            store.saveJobs(jobs);
             return Optional.of(job);
-        } finally {
-            opLock.unlock();
         }
+        return Optional.empty();
+    }
+
+    /**
+     * Batch complete/fail transitions through a {@link GroupCommitter}: they are flushed every
+     * {@code windowMs} or at {@code maxBatch} entries as one transaction. {@code windowMs <= 0} disables it.
+     */
+    public synchronized void startGroupCommit(int windowMs, int maxBatch) {
+        stopGroupCommit();
+        if (windowMs > 0) groupCommitter = new GroupCommitter(this::applyTransitions, windowMs, maxBatch);
+    }
+
+    /** On context shutdown: flush pending transitions and release waiters and their threads. */
+    @PreDestroy
+    public void close() {
+        stopGroupCommit();
+        waiters.close();
+    }
+
+    public synchronized void stopGroupCommit() {
+        GroupCommitter gc = groupCommitter;
+        groupCommitter = null;
+        if (gc != null) gc.close();
+    }
+
+    /**
+     * Mark a job that {@code workerId} claimed completed. Ignored unless the job is still
+     * {@code processing} under that worker, so a repeated or stale completion changes nothing.
+     */
+    public void complete(String jobId, String workerId) {
+        complete(jobId, workerId, null);
+    }
+
+    /** As {@link #complete(String, String)}, storing {@code output} (if non-null) in the result store in the same transaction. */
+    public void complete(String jobId, String workerId, String output) {
+        complete(jobId, workerId, output, null);
+    }
+
+    /** As {@link #complete(String, String, String)}, also recording the run's {@code usage} if non-null. */
+    public void complete(String jobId, String workerId, String output, JobUsage usage) {
+        transition(new GroupCommitter.Transition(jobId, workerId, true, 0, null, output, usage));
+    }
+
+    /** Record a failed run of a job {@code workerId} claimed; ignored like a stale {@link #complete(String, String)}. */
+    public void fail(String jobId, String workerId, int base, String errorTail) {
+        fail(jobId, workerId, base, errorTail, null);
+    }
+
+    public void fail(String jobId, String workerId, int base, String errorTail, String output) {
+        fail(jobId, workerId, base, errorTail, output, null);
+    }
+
+    public void fail(String jobId, String workerId, int base, String errorTail, String output, JobUsage usage) {
+        transition(new GroupCommitter.Transition(jobId, workerId, false, base, errorTail, output, usage));
     }
 
-    public void complete(String jobId) {
+    /**
+     * Put a job {@code workerId} claimed back to {@code pending}, for when its complete/fail could not
+     * be recorded; it runs again. Ignored unless the job is still {@code processing} under that worker.
+     */
+    public boolean requeue(String jobId, String workerId, String reason) {
+        boolean[] done = {false};
         opLock.lock();
         try {
-            List<Job> jobs = store.loadJobs();
-            jobs.stream().filter(j -> j.id.equals(jobId)).findFirst().ifPresent(j -> {
-                j.state = JobState.completed;
+            store.inTransaction(() -> {
+                List<Job> rows = store.findJobsForUpdate(List.of(jobId));
+                if (rows.isEmpty()) return;
+                Job j = rows.get(0);
+                if (j.state != JobState.processing || !Objects.equals(j.workerId, workerId)) return;
+                Instant now = clock.now();
+                j.state = JobState.pending;
                 j.workerId = null;
-                j.updatedAt = clock.now();
+                j.lastError = reason;
+                j.updatedAt = now;
+                store.updateJobs(List.of(j));
+                store.appendEvents(List.of(event(j, JobEventType.retried, JobState.processing, now, reason).by(workerId)));
+                done[0] = true;
             });
-            store.saveJobs(jobs);
         } finally {
             opLock.unlock();
         }
+        return done[0];
     }
 
-    public void fail(String jobId, int base, String errorTail) {
+    private void transition(GroupCommitter.Transition t) {
+        GroupCommitter gc = groupCommitter;
+        if (gc != null) {
+            gc.submitAndWait(t);
+        } else {
+            applyTransitions(List.of(t));
+        }
+    }
+
+    /**
+     * Apply a batch of complete/fail transitions in one store transaction. The jobs' rows are locked
+     * first; a transition for a job that is no longer {@code processing} under its worker is skipped.
+     * Nothing outside the transaction is changed until it commits, so a batch that rolls back can be
+     * applied again: the transitions are left untouched and the retry budget is restored.
+     */
+    private void applyTransitions(List<GroupCommitter.Transition> batch) {
+        List<Job> finished = new ArrayList<>();
         opLock.lock();
+        RetryBudget.Checkpoint budgetBefore = retryBudget == null ? null : retryBudget.checkpoint();
         try {
-            Map<String,Object> cfg = store.loadConfig();
-            int maxRetries = Integer.parseInt(cfg.getOrDefault("max_retries", 3).toString());
+            store.inTransaction(() -> {
+                finished.clear();
+                Map<String,Object> cfg = store.loadConfig();
+                int maxRetries = Integer.parseInt(cfg.getOrDefault("max_retries", 3).toString());
+                int maxOutput = Integer.parseInt(cfg.getOrDefault("max_output_bytes", JobResult.DEFAULT_MAX_BYTES).toString());
 
-            List<Job> jobs = store.loadJobs();
-            Optional<Job> opt = jobs.stream().filter(j -> j.id.equals(jobId)).findFirst();
-            if (opt.isEmpty()) return;
-            Job j = opt.get();
+                Map<String, Job> byId = new HashMap<>();
+                for (Job j : store.findJobsForUpdate(batch.stream().map(t -> t.jobId).collect(Collectors.toSet()))) {
+                    byId.put(j.id, j);
+                }
+                Instant now = clock.now();
+                List<Job> updated = new ArrayList<>();
+                List<String> completed = new ArrayList<>();
+                List<Job> dead = new ArrayList<>();
+                List<JobResult> results = new ArrayList<>();
+                List<JobEvent> events = new ArrayList<>();
+                List<JobUsage> usage = new ArrayList<>();
 
-            int attempts = j.attempts + 1;
-            j.attempts = attempts;
-            j.lastError = errorTail;
-            j.updatedAt = new Clock().now();
-
-            if (attempts >= maxRetries) {
-                j.state = JobState.dead;
-                List<Job> dlq = store.loadDlq();
-                dlq.add(j);
-                store.saveDlq(dlq);
-                jobs.remove(j);
-                store.saveJobs(jobs);
-            } else {
-                long delay = new BackoffService().delaySeconds(base, attempts);
-                j.runAt = new Clock().now().plusSeconds(delay);
-                j.state = JobState.failed;
-                j.workerId = null;
-                store.saveJobs(jobs);
-            }
+                for (GroupCommitter.Transition t : batch) {
+                    Job j = byId.get(t.jobId);
+                    if (j == null || j.state != JobState.processing || !Objects.equals(j.workerId, t.workerId)) {
+                        // already finished (a repeated transition) or reclaimed by someone else
+                        System.err.println("Ignoring " + (t.success ? "completion" : "failure") + " of " + t.jobId + " by " + t.workerId
+                                + ": job is " + (j == null ? "gone" : j.state + (j.workerId == null ? "" : " under " + j.workerId)));
+                        continue;
+                    }
+                    if (t.output != null) results.add(JobResult.of(j.id, t.output, maxOutput));
+                    if (t.usage != null) usage.add(t.usage.forAttempt(j.id, j.attempts + 1));
+                    JobState from = j.state;
+                    String worker = j.workerId;
+                    if (retryBudget != null && j.attempts == 0) retryBudget.deposit();
+                    j.updatedAt = now;
+                    if (t.success) {
+                        j.state = JobState.completed;
+                        j.workerId = null;
+                        updated.add(j);
+                        completed.add(j.id);
+                        finished.add(j);
+                        events.add(event(j, JobEventType.completed, from, now, null).by(worker));
+                        continue;
+                    }
+                    int attempts = j.attempts + 1;
+                    j.attempts = attempts;
+                    j.lastError = t.error;
+                    String exit = t.error == null ? null : t.error.lines().findFirst().orElse(null);
+                    if (attempts >= maxRetries) {
+                        j.state = JobState.dead;
+                        dead.add(j);
+                        events.add(event(j, JobEventType.dead, from, now, exit).by(worker));
+                    } else {
+                        long delay = backoff.delaySeconds(t.base, attempts, j.lastDelaySec);
+                        long deferred = retryBudget == null ? 0 : retryBudget.reserve();
+                        j.lastDelaySec = delay;
+                        j.runAt = now.plusSeconds(delay + deferred);
+                        j.state = JobState.failed;
+                        j.workerId = null;
+                        updated.add(j);
+                        events.add(event(j, JobEventType.failed, from, now, exit).by(worker));
+                    }
+                }
+
+                if (!dead.isEmpty()) killDescendants(dead, now, events);
+                updated.addAll(dead);
+                store.updateJobs(updated);
+                store.resolveParents(completed);
+                store.moveToDlq(dead.stream().map(j -> j.id).collect(Collectors.toList()));
+                store.saveResults(results);
+                store.saveUsage(usage);
+                store.appendEvents(events);
+                finished.addAll(dead);
+            });
+        } catch (RuntimeException e) {
+            if (budgetBefore != null) retryBudget.restore(budgetBefore);
+            throw e;
         } finally {
             opLock.unlock();
         }
+        // only once committed, and outside the lock since callers' continuations run here
+        waiters.fire(finished);
+    }
 
+    /**
+     * Add every waiting job downstream of {@code dead} to it; they can no longer become ready. Edges
+     * and children are read with locking reads, which see rows committed after this transaction's
+     * snapshot: an enqueue that locked a dead parent before us has committed its edge by now, and one
+     * that comes later finds the parent in the DLQ.
+     */
+    private void killDescendants(List<Job> dead, Instant now, List<JobEvent> events) {
+        Set<String> seen = dead.stream().map(j -> j.id).collect(Collectors.toCollection(HashSet::new));
+        Deque<Job> frontier = new ArrayDeque<>(dead);
+        while (!frontier.isEmpty()) {
+            Job parent = frontier.poll();
+            List<String> children = store.loadChildrenForUpdate(parent.id);
+            children.removeIf(id -> !seen.add(id));
+            for (Job child : store.findJobsForUpdate(children)) {
+                // only blocked children; one already running or done is left alone
+                if (child.state != JobState.pending) continue;
+                child.state = JobState.dead;
+                child.lastError = "dependency failed: " + parent.id;
+                child.updatedAt = now;
+                dead.add(child);
+                events.add(event(child, JobEventType.dead, JobState.pending, now, child.lastError));
+                frontier.add(child);
+            }
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Futures waiting for jobs to finish. Transitions applied in this process {@link #fire} them
+ * directly. While any are registered, a poller follows the event log for jobs that other nodes
+ * finish. Every {@value #RECHECK_MS} ms it also re-reads the waiting rows, because an event
+ * committed out of seq order can land behind the cursor. Futures are completed on a small
+ * executor of their own, so callers' dependent stages never run on the group-commit flusher or the
+ * poller; {@link #close} shuts it down and fails whatever is still waiting.
+ */
+class JobWaiters {
+
+    private static final long POLL_MS = 200;
+    private static final long RECHECK_MS = 5000;
+    private static final int EVENT_BATCH = 500;
+
+    private final Map<String, List<CompletableFuture<Job>>> waiting = new HashMap<>();
+    private final LongSupplier latestSeq;
+    private final BiFunction<Long, Integer, List<JobEvent>> readEvents;
+    private final Function<String, Optional<Job>> find;
+    private static final int CALLBACK_THREADS = 2;
+
+    private final ExecutorService callbacks = Executors.newFixedThreadPool(CALLBACK_THREADS, r -> {
+        Thread t = new Thread(r, "queuectl-waiters-callback");
+        t.setDaemon(true);
+        return t;
+    });
+    private Thread poller;
+    private long cursor;
+    private boolean closed;
+
+    JobWaiters(LongSupplier latestSeq, BiFunction<Long, Integer, List<JobEvent>> readEvents, Function<String, Optional<Job>> find) {
+        this.latestSeq = latestSeq;
+        this.readEvents = readEvents;
+        this.find = find;
+    }
+
+    /** Register before the job can finish; the future is dropped from the registry however it completes. */
+    CompletableFuture<Job> register(String jobId) {
+        CompletableFuture<Job> f = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                f.completeExceptionally(new IllegalStateException("job service is shutting down"));
+                return f;
+            }
+            if (poller == null) {
+                cursor = latestSeq.getAsLong();
+                poller = new Thread(this::poll, "queuectl-waiters");
+                poller.setDaemon(true);
+                poller.start();
+            }
+            waiting.computeIfAbsent(jobId, k -> new ArrayList<>()).add(f);
+        }
+        f.whenComplete((job, err) -> remove(jobId, f));
+        return f;
+    }
+
+    void fire(List<Job> finished) {
+        for (Job j : finished) {
+            List<CompletableFuture<Job>> fs;
+            synchronized (this) {
+                if (waiting.isEmpty()) return;
+                fs = waiting.remove(j.id);
+            }
+            if (fs == null) continue;
+            for (CompletableFuture<Job> f : fs) {
+                try {
+                    f.completeAsync(() -> j, callbacks);
+                } catch (RejectedExecutionException closing) {
+                    f.complete(j);
+                }
+            }
+        }
+    }
+
+    /** Stop the poller and the callback threads; futures still waiting fail with {@link IllegalStateException}. */
+    void close() {
+        List<CompletableFuture<Job>> pending = new ArrayList<>();
+        Thread p;
+        synchronized (this) {
+            closed = true;
+            waiting.values().forEach(pending::addAll);
+            waiting.clear();
+            p = poller;
+            poller = null;
+        }
+        if (p != null) p.interrupt();
+        IllegalStateException stopped = new IllegalStateException("job service is shutting down");
+        for (CompletableFuture<Job> f : pending) f.completeExceptionally(stopped);
+        callbacks.shutdown();
+    }
+
+    synchronized int size() {
+        return waiting.values().stream().mapToInt(List::size).sum();
+    }
+
+    private synchronized void remove(String jobId, CompletableFuture<Job> f) {
+        List<CompletableFuture<Job>> fs = waiting.get(jobId);
+        if (fs != null && fs.remove(f) && fs.isEmpty()) waiting.remove(jobId);
+    }
+
+    private synchronized boolean isWaiting(String jobId) {
+        return waiting.containsKey(jobId);
+    }
+
+    private void poll() {
+        long recheckAt = System.currentTimeMillis() + RECHECK_MS;
+        while (true) {
+            long from;
+            synchronized (this) {
+                if (waiting.isEmpty()) {
+                    poller = null;
+                    return;
+                }
+                from = cursor;
+            }
+            try {
+                Thread.sleep(POLL_MS);
+                List<JobEvent> events;
+                do {
+                    events = readEvents.apply(from, EVENT_BATCH);
+                    for (JobEvent e : events) {
+                        from = e.seq;
+                        if ((e.type == JobEventType.completed || e.type == JobEventType.dead) && isWaiting(e.jobId)) resolve(e.jobId);
+                    }
+                } while (events.size() == EVENT_BATCH);
+                synchronized (this) {
+                    cursor = from;
+                }
+                if (System.currentTimeMillis() >= recheckAt) {
+                    recheckAt = System.currentTimeMillis() + RECHECK_MS;
+                    List<String> ids;
+                    synchronized (this) {
+                        ids = new ArrayList<>(waiting.keySet());
+                    }
+                    for (String id : ids) resolve(id);
+                }
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    poller = null;
+                }
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("job waiter poll failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void resolve(String jobId) {
+        Optional<Job> j = find.apply(jobId);
+        if (j.isPresent() && (j.get().state == JobState.completed || j.get().state == JobState.dead)) fire(List.of(j.get()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.queuectl.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Samples CPU time and resident memory of a process and its descendants from {@code /proc} (Linux).
+ * CPU is each live process's own plus reaped-children time, so work by already-exited descendants
+ * is counted once through their parent. Values are maxima over the samples taken. The root is reaped
+ * by the JVM as soon as it exits, so its stat cannot be read afterwards: CPU used after the last sample
+ * is missed, up to one sampling interval, and a job that exits before the first sample reports zero.
+ * <p>
+ * The tree is found through {@code /proc/<pid>/task/<tid>/children}, which touches only the tree's
+ * own entries; kernels without that file fall back to {@link ProcessHandle#descendants}, which scans
+ * every process on the host.
+ */
+final class ProcessTreeSampler {
+
+    private static final Path PROC = Paths.get("/proc");
+    /** /proc reports CPU in USER_HZ ticks, which Linux fixes at 100 for userspace. */
+    private static final long MS_PER_TICK = 10;
+    private static final boolean CHILDREN_FILES =
+            Files.isReadable(PROC.resolve("self").resolve("task").resolve(Long.toString(ProcessHandle.current().pid())).resolve("children"));
+
+    static boolean available() {
+        return Files.isReadable(PROC.resolve("self").resolve("stat"));
+    }
+
+    private final ProcessHandle root;
+    private long userTicks;
+    private long sysTicks;
+    private long peakRssKb;
+
+    ProcessTreeSampler(ProcessHandle root) {
+        this.root = root;
+    }
+
+    void sample() {
+        long user = 0, sys = 0, rss = 0, hwm = 0;
+        for (long pid : tree()) {
+            Path dir = PROC.resolve(Long.toString(pid));
+            try {
+                long[] cpu = parseStat(Files.readString(dir.resolve("stat")));
+                user += cpu[0];
+                sys += cpu[1];
+                long[] mem = parseStatus(Files.readAllLines(dir.resolve("status")));
+                rss += mem[0];
+                hwm = Math.max(hwm, mem[1]);
+            } catch (IOException | RuntimeException gone) {
+                // exited between listing and reading
+            }
+        }
+        userTicks = Math.max(userTicks, user);
+        sysTicks = Math.max(sysTicks, sys);
+        // a single process's high-water mark also catches spikes between samples
+        peakRssKb = Math.max(peakRssKb, Math.max(rss, hwm));
+    }
+
+    private List<Long> tree() {
+        List<Long> tree = new ArrayList<>();
+        if (!CHILDREN_FILES) {
+            tree.add(root.pid());
+            root.descendants().forEach(h -> tree.add(h.pid()));
+            return tree;
+        }
+        Deque<Long> todo = new ArrayDeque<>();
+        todo.add(root.pid());
+        while (!todo.isEmpty()) {
+            long pid = todo.poll();
+            tree.add(pid);
+            try (Stream<Path> tasks = Files.list(PROC.resolve(Long.toString(pid)).resolve("task"))) {
+                for (Path task : (Iterable<Path>) tasks::iterator) {
+                    for (String child : Files.readString(task.resolve("children")).trim().split(" ")) {
+                        if (!child.isEmpty()) todo.add(Long.parseLong(child));
+                    }
+                }
+            } catch (IOException | RuntimeException gone) {
+                // exited while walking
+            }
+        }
+        return tree;
+    }
+
+    long cpuUserMs() { return userTicks * MS_PER_TICK; }
+
+    long cpuSysMs() { return sysTicks * MS_PER_TICK; }
+
+    long peakRssKb() { return peakRssKb; }
+
+    /** {@code {utime + cutime, stime + cstime}} in ticks from a {@code /proc/<pid>/stat} line. */
+    static long[] parseStat(String stat) {
+        // comm (field 2) is parenthesised and may contain spaces; fields are counted after it
+        String[] f = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+        // f[0] is field 3 (state): utime=14, stime=15, cutime=16, cstime=17
+        return new long[]{Long.parseLong(f[11]) + Long.parseLong(f[13]), Long.parseLong(f[12]) + Long.parseLong(f[14])};
+    }
+
+    /** {@code {VmRSS, VmHWM}} in kB from {@code /proc/<pid>/status}; zero for kernel threads and zombies. */
+    static long[] parseStatus(List<String> lines) {
+        long rss = 0, hwm = 0;
+        for (String line : lines) {
+            if (line.startsWith("VmRSS:")) rss = kb(line);
+            else if (line.startsWith("VmHWM:")) hwm = kb(line);
+        }
+        return new long[]{rss, hwm};
+    }
+
+    private static long kb(String line) {
+        return Long.parseLong(line.substring(line.indexOf(':') + 1).replace("kB", "").trim());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.queuectl.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Caps retries at {@code ratio} of first attempts plus a floor of {@code minPerSec}. Every first
+ * attempt that finishes deposits {@code ratio} tokens, the floor refills continuously, and each
+ * scheduled retry withdraws one. When the balance is overdrawn the retry is pushed back by the time
+ * the floor needs to repay it, so after an outage retries drain at a steady rate instead of in bursts.
+ * <p>
+ * Not thread-safe; {@link JobService} only touches it under its operation lock. State is per JVM and
+ * nodes do not share it, so N nodes running workers together allow N times the configured ratio and
+ * floor; divide both by the node count to hold a cluster-wide limit.
+ */
+final class RetryBudget {
+
+    /** Longest a retry is ever deferred by the budget, matching the backoff cap. */
+    private static final long MAX_DEFER_SEC = 24L * 3600;
+
+    private final double ratio;
+    private final double minPerSec;
+    /** Upper bound on banked tokens, so a quiet spell does not pre-pay an unlimited burst. */
+    private final double cap;
+    private final LongSupplier nanos;
+    private double balance;
+    private long last;
+
+    RetryBudget(double ratio, double minPerSec) {
+        this(ratio, minPerSec, System::nanoTime);
+    }
+
+    RetryBudget(double ratio, double minPerSec, LongSupplier nanos) {
+        if (ratio < 0 || minPerSec <= 0) throw new IllegalArgumentException("retry budget needs ratio >= 0 and min_per_sec > 0");
+        this.ratio = ratio;
+        this.minPerSec = minPerSec;
+        this.cap = Math.max(1, minPerSec * 10 + ratio * 100);
+        this.nanos = nanos;
+        this.last = nanos.getAsLong();
+        this.balance = cap;
+    }
+
+    /** Balance and refill clock, so the deposits and reservations of a rolled-back batch can be undone. */
+    static final class Checkpoint {
+        private final double balance;
+        private final long last;
+
+        private Checkpoint(double balance, long last) {
+            this.balance = balance;
+            this.last = last;
+        }
+    }
+
+    Checkpoint checkpoint() {
+        return new Checkpoint(balance, last);
+    }
+
+    void restore(Checkpoint c) {
+        balance = c.balance;
+        last = c.last;
+    }
+
+    void deposit() {
+        refill();
+        balance = Math.min(cap, balance + ratio);
+    }
+
+    /** Withdraw one retry; returns how many seconds it must wait beyond its backoff (0 when covered). */
+    long reserve() {
+        refill();
+        balance -= 1;
+        if (balance >= 0) return 0;
+        return Math.min(MAX_DEFER_SEC, (long) Math.ceil(-balance / minPerSec));
+    }
+
+    private void refill() {
+        long now = nanos.getAsLong();
+        balance = Math.min(cap, balance + (now - last) / 1e9 * minPerSec);
+        last = now;
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.Schedule;
+import com.example.queuectl.storage.StorePort;
+import com.example.queuectl.util.Clock;
+import com.example.queuectl.util.NodeId;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes recurring {@link Schedule}s into {@code jobs}. Every node running the scheduler keeps
+ * all schedules armed in a {@link TimingWheel} ticking once per second, but only the holder of the
+ * {@code scheduler} lease enqueues occurrences. Occurrence ids are deterministic (interval schedules
+ * fire at {@code created_at + k * interval}), so a failover that overlaps a tick cannot produce
+ * duplicates. A node that acquires the lease enqueues the occurrences it let pass while it was not
+ * leader, going back at most {@value #CATCHUP_SEC} seconds and {@value #MAX_CATCHUP} occurrences.
+ */
+@Service
+public class SchedulerService {
+
+    static final String LEASE = "scheduler";
+    private static final int LEASE_TTL_SEC = 10;
+    private static final int REFRESH_SEC = 30;
+    static final int CATCHUP_SEC = 3600;
+    static final int MAX_CATCHUP = 60;
+
+    /** A schedule sitting in the wheel, with its cron pre-parsed and the occurrence it is armed for. */
+    private static final class Armed {
+        final Schedule schedule;
+        final CronExpression cron;
+        long at;
+        Armed(Schedule schedule, CronExpression cron) {
+            this.schedule = schedule;
+            this.cron = cron;
+        }
+    }
+
+    private final JobService jobService;
+    private final StorePort store;
+    private final Clock clock = new Clock();
+
+    private final Object lock = new Object();
+    private final Map<String, Armed> armed = new HashMap<>();
+    private TimingWheel<Armed> wheel;
+    private ScheduledExecutorService ticker;
+    private volatile boolean leader;
+    private long lastRefresh;
+
+    public SchedulerService(JobService jobService, StorePort store) {
+        this.jobService = jobService;
+        this.store = store;
+    }
+
+    public List<Schedule> list() { return store.loadSchedules(); }
+
+    public Schedule add(Schedule s) {
+        boolean hasCron = s.cron != null && !s.cron.isBlank();
+        boolean hasInterval = s.intervalSec != null && s.intervalSec > 0;
+        if (hasCron == hasInterval) throw new IllegalArgumentException("exactly one of cron or interval is required");
+        if (hasCron) parseCron(s.cron);
+        // interval occurrences count from here; whole seconds, so every node derives the same ids from the stored row
+        s.createdAt = clock.now().truncatedTo(ChronoUnit.SECONDS);
+        store.saveSchedule(s);
+        synchronized (lock) {
+            if (wheel != null) arm(s, clock.now().getEpochSecond());
+        }
+        return s;
+    }
+
+    public boolean remove(String id) {
+        synchronized (lock) {
+            armed.remove(id);
+        }
+        return store.deleteSchedule(id);
+    }
+
+    public synchronized String start() {
+        if (ticker != null) return "Scheduler already running.";
+        long now = clock.now().getEpochSecond();
+        synchronized (lock) {
+            wheel = new TimingWheel<>(64, 4, now);
+            armed.clear();
+        }
+        refresh(now);
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "queuectl-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        return "Scheduler started (" + armedCount() + " schedule(s) armed).";
+    }
+
+    public synchronized String stop() {
+        if (ticker == null) return "Scheduler not running.";
+        ticker.shutdownNow();
+        ticker = null;
+        leader = false;
+        synchronized (lock) {
+            wheel = null;
+            armed.clear();
+        }
+        return "Scheduler stopped.";
+    }
+
+    public boolean isRunning() { return ticker != null; }
+
+    public boolean isLeader() { return leader; }
+
+    public int armedCount() {
+        synchronized (lock) {
+            return armed.size();
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = clock.now().getEpochSecond();
+            boolean was = leader;
+            try {
+                leader = store.tryAcquireLease(LEASE, NodeId.get(), LEASE_TTL_SEC);
+            } catch (Exception e) {
+                leader = false;
+            }
+            if (now - lastRefresh >= REFRESH_SEC) refresh(now);
+            if (leader && !was) catchUp(now);
+
+            List<Armed> due;
+            synchronized (lock) {
+                if (wheel == null) return;
+                due = wheel.advanceTo(now);
+            }
+            for (Armed a : due) fire(a);
+        } catch (Exception e) {
+            // keep ticking; a failed tick must not cancel the fixed-rate task
+            System.err.println("scheduler tick failed: " + e.getMessage());
+        }
+    }
+
+    private void fire(Armed a) {
+        synchronized (lock) {
+            // removed or redefined since it was armed
+            if (armed.get(a.schedule.id) != a) return;
+        }
+        if (leader) enqueue(a.schedule, a.at);
+        synchronized (lock) {
+            if (wheel != null && armed.get(a.schedule.id) == a) {
+                a.at = nextFire(a, a.at);
+                wheel.add(a, a.at);
+            }
+        }
+    }
+
+    private void enqueue(Schedule s, long at) {
+        Job j = new Job(s.id + "-" + at, s.command);
+        j.priority = s.priority;
+        j.maxRetries = s.maxRetries;
+        try {
+            jobService.enqueue(j);
+        } catch (IllegalArgumentException alreadyMaterialized) {
+            // a previous leader got to this occurrence first
+        }
+    }
+
+    /**
+     * Enqueue occurrences that came due while this node was not leader: its wheel kept advancing
+     * without enqueuing, and the previous leader may have stopped before they fired.
+     */
+    private void catchUp(long now) {
+        List<Armed> current;
+        synchronized (lock) {
+            current = new ArrayList<>(armed.values());
+        }
+        for (Armed a : current) {
+            long from = Math.max(now - CATCHUP_SEC, a.schedule.createdAt.getEpochSecond());
+            ArrayDeque<Long> missed = new ArrayDeque<>();
+            for (long t = nextFire(a, from); t < a.at && t <= now; t = nextFire(a, t)) {
+                missed.addLast(t);
+                if (missed.size() > MAX_CATCHUP) missed.removeFirst();
+            }
+            for (long t : missed) enqueue(a.schedule, t);
+        }
+    }
+
+    /** Pick up schedules added, changed or removed on other nodes. */
+    private void refresh(long now) {
+        lastRefresh = now;
+        List<Schedule> current = store.loadSchedules();
+        synchronized (lock) {
+            if (wheel == null) return;
+            Set<String> seen = new HashSet<>();
+            for (Schedule s : current) {
+                if (!s.enabled) continue;
+                seen.add(s.id);
+                Armed existing = armed.get(s.id);
+                if (existing == null || !existing.schedule.sameDefinition(s)) {
+                    try {
+                        arm(s, now);
+                    } catch (IllegalArgumentException badCron) {
+                        System.err.println("skipping schedule " + s.id + ": " + badCron.getMessage());
+                    }
+                }
+            }
+            armed.keySet().retainAll(seen);
+        }
+    }
+
+    // caller holds lock
+    private void arm(Schedule s, long now) {
+        Armed a = new Armed(s, s.cron == null || s.cron.isBlank() ? null : parseCron(s.cron));
+        a.at = nextFire(a, now);
+        armed.put(s.id, a);
+        wheel.add(a, a.at);
+    }
+
+    /** First occurrence strictly after {@code afterSec}; intervals count from the schedule's creation. */
+    private static long nextFire(Armed a, long afterSec) {
+        if (a.cron == null) {
+            long anchor = a.schedule.createdAt.getEpochSecond();
+            long every = a.schedule.intervalSec;
+            return anchor + Math.max(1, Math.floorDiv(afterSec - anchor, every) + 1) * every;
+        }
+        ZonedDateTime next = a.cron.next(ZonedDateTime.ofInstant(Instant.ofEpochSecond(afterSec), ZoneOffset.UTC));
+        return next == null ? Long.MAX_VALUE : next.toEpochSecond();
+    }
+
+    /** Accepts classic 5-field cron as well as Spring's 6-field form with seconds. */
+    static CronExpression parseCron(String cron) {
+        String c = cron.trim();
+        if (c.split("\\s+").length == 5) c = "0 " + c;
+        return CronExpression.parse(c);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.storage.ClaimScan;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Decides which runnable job a worker claims next. A policy names the index scans that feed it
+ * candidates and orders the merged candidates; the claim path tries them best first. Selected with
+ * {@code config set scheduling_policy strict|aging|edf}.
+ */
+public interface SchedulingPolicy {
+
+    String name();
+
+    List<ClaimScan> scans();
+
+    Comparator<Job> order(Instant now);
+
+    Comparator<Job> BY_PRIORITY = Comparator.<Job>comparingInt(j -> j.priority).reversed()
+            .thenComparing(j -> j.createdAt);
+
+    static SchedulingPolicy of(String name, int agingSec) {
+        switch (name == null ? "strict" : name.trim().toLowerCase()) {
+            case "strict":
+                return new StrictPriority();
+            case "aging":
+                return new PriorityWithAging(agingSec);
+            case "edf":
+                return new EarliestDeadlineFirst();
+            default:
+                throw new IllegalArgumentException("Unknown scheduling_policy: " + name + " (strict, aging or edf)");
+        }
+    }
+
+    /** Highest priority, then oldest. Low priorities can starve under sustained high-priority load. */
+    final class StrictPriority implements SchedulingPolicy {
+        @Override public String name() { return "strict"; }
+        @Override public List<ClaimScan> scans() { return List.of(ClaimScan.PRIORITY); }
+        @Override public Comparator<Job> order(Instant now) { return BY_PRIORITY; }
+    }
+
+    /**
+     * Priority raised by one level for every {@code agingSec} a job has waited. Candidates are the top
+     * of the priority index and the oldest jobs ({@link ClaimScan#OLDEST}), so the order is exact only
+     * among those; a job that is neither waits until it becomes one. The oldest runnable job is always a
+     * candidate and its priority keeps rising, which still bounds every job's wait.
+     */
+    final class PriorityWithAging implements SchedulingPolicy {
+        private final int agingSec;
+
+        public PriorityWithAging(int agingSec) {
+            if (agingSec <= 0) throw new IllegalArgumentException("aging_sec must be positive");
+            this.agingSec = agingSec;
+        }
+
+        @Override public String name() { return "aging"; }
+        @Override public List<ClaimScan> scans() { return List.of(ClaimScan.PRIORITY, ClaimScan.OLDEST); }
+
+        @Override
+        public Comparator<Job> order(Instant now) {
+            return Comparator.<Job>comparingDouble(j -> -effectivePriority(j, now)).thenComparing(j -> j.createdAt);
+        }
+
+        double effectivePriority(Job j, Instant now) {
+            long waited = Math.max(0, Duration.between(j.createdAt, now).getSeconds());
+            return j.priority + (double) waited / agingSec;
+        }
+    }
+
+    /** Jobs with a deadline by earliest deadline; jobs without one follow in strict priority order. */
+    final class EarliestDeadlineFirst implements SchedulingPolicy {
+        @Override public String name() { return "edf"; }
+        @Override public List<ClaimScan> scans() { return List.of(ClaimScan.DEADLINE, ClaimScan.PRIORITY); }
+
+        @Override
+        public Comparator<Job> order(Instant now) {
+            return Comparator.<Job, Instant>comparing(j -> j.deadline, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(BY_PRIORITY);
+        }
+    }
+}
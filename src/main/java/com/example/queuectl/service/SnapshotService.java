@@ -0,0 +1,243 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+import com.example.queuectl.storage.StorePort;
+import com.example.queuectl.util.Jsons;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Backup and migration snapshots: gzip-compressed JSON lines holding config, jobs, dependency edges
+ * and the DLQ. Export streams rows from a server-side cursor straight into the file and import
+ * inserts in batches of {@value #IMPORT_BATCH}, so memory stays bounded whatever the table sizes.
+ * The event log is not exported; each imported row gets an {@code enqueued} event to its imported state.
+ */
+@Service
+public class SnapshotService {
+
+    static final String FORMAT = "queuectl-snapshot";
+    static final int VERSION = 1;
+    private static final int IMPORT_BATCH = 1000;
+
+    /** One line of a snapshot; exactly one field besides the header fields is set. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Record {
+        public String format;
+        public Integer version;
+        @JsonProperty("exported_at")
+        public Instant exportedAt;
+        public Map<String, Object> config;
+        public Job job;
+        /** {@code [parent, child]}. */
+        public String[] dep;
+        public Job dlq;
+    }
+
+    private final StorePort store;
+    private final ObjectWriter writer = Jsons.compact().forType(Record.class);
+
+    public SnapshotService(StorePort store) {
+        this.store = store;
+    }
+
+    public String exportTo(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] n = new long[2];
+        boolean written = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024), 64 * 1024)) {
+                writeSnapshot(out, n);
+            }
+            // only once close() has flushed the gzip trailer is the file complete
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!written) Files.deleteIfExists(tmp);
+        }
+        return "Exported " + n[0] + " job(s) and " + n[1] + " DLQ job(s) to " + file + " (" + Files.size(file) + " bytes)";
+    }
+
+    private void writeSnapshot(OutputStream out, long[] n) {
+        // one transaction, so the tables are read from a single consistent snapshot
+        store.inTransaction(() -> {
+            Record header = new Record();
+            header.format = FORMAT;
+            header.version = VERSION;
+            header.exportedAt = Instant.now();
+            write(out, header);
+
+            Record cfg = new Record();
+            cfg.config = store.loadConfig();
+            write(out, cfg);
+
+            Record r = new Record();
+            store.streamJobs(j -> {
+                r.job = j;
+                write(out, r);
+                n[0]++;
+            });
+            r.job = null;
+            store.streamDependencies((parent, child) -> {
+                r.dep = new String[]{parent, child};
+                write(out, r);
+            });
+            r.dep = null;
+            store.streamDlq(j -> {
+                r.dlq = j;
+                write(out, r);
+                n[1]++;
+            });
+        });
+    }
+
+    /**
+     * Load a snapshot into the current store. Ids that already exist are skipped; jobs that were
+     * processing at export time come back pending, since their workers are gone.
+     */
+    public String importFrom(Path file) throws IOException {
+        long jobs = 0, dlq = 0, skipped = 0;
+        List<Job> jobBatch = new ArrayList<>();
+        List<Job> dlqBatch = new ArrayList<>();
+        List<String[]> depBatch = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024), 64 * 1024);
+             MappingIterator<Record> it = Jsons.mapper().readerFor(Record.class).readValues(in)) {
+            if (!it.hasNext()) throw new IOException("Empty snapshot: " + file);
+            Record header = it.next();
+            if (!FORMAT.equals(header.format)) throw new IOException("Not a queuectl snapshot: " + file);
+            if (header.version == null || header.version > VERSION) throw new IOException("Unsupported snapshot version " + header.version);
+
+            while (it.hasNext()) {
+                Record r = it.next();
+                if (r.config != null) {
+                    store.saveConfig(r.config);
+                } else if (r.job != null) {
+                    Job j = r.job;
+                    if (j.state == JobState.processing) {
+                        j.state = JobState.pending;
+                        j.workerId = null;
+                    }
+                    jobBatch.add(j);
+                    if (jobBatch.size() >= IMPORT_BATCH) {
+                        int ok = insertJobs(jobBatch);
+                        jobs += ok;
+                        skipped += jobBatch.size() - ok;
+                        jobBatch.clear();
+                    }
+                } else if (r.dep != null) {
+                    depBatch.add(r.dep);
+                    if (depBatch.size() >= IMPORT_BATCH) insertDeps(depBatch);
+                } else if (r.dlq != null) {
+                    dlqBatch.add(r.dlq);
+                    if (dlqBatch.size() >= IMPORT_BATCH) {
+                        int ok = insertDlq(dlqBatch);
+                        dlq += ok;
+                        skipped += dlqBatch.size() - ok;
+                        dlqBatch.clear();
+                    }
+                }
+            }
+        }
+        int ok = insertJobs(jobBatch);
+        jobs += ok;
+        skipped += jobBatch.size() - ok;
+        insertDeps(depBatch);
+        ok = insertDlq(dlqBatch);
+        dlq += ok;
+        skipped += dlqBatch.size() - ok;
+        return "Imported " + jobs + " job(s) and " + dlq + " DLQ job(s) from " + file
+                + (skipped > 0 ? " (" + skipped + " existing id(s) skipped)" : "");
+    }
+
+    private void write(OutputStream out, Record r) {
+        try {
+            out.write(writer.writeValueAsBytes(r));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns how many were inserted; on a duplicate the batch is retried row by row. */
+    private int insertJobs(List<Job> batch) {
+        if (batch.isEmpty()) return 0;
+        try {
+            store.inTransaction(() -> {
+                store.insertJobs(batch);
+                store.appendEvents(imported(batch, null));
+            });
+            return batch.size();
+        } catch (IllegalArgumentException duplicate) {
+            int[] ok = new int[1];
+            for (Job j : batch) {
+                store.inTransaction(() -> {
+                    if (!store.insertJob(j)) return;
+                    store.appendEvents(imported(List.of(j), null));
+                    ok[0]++;
+                });
+            }
+            return ok[0];
+        }
+    }
+
+    private int insertDlq(List<Job> batch) {
+        if (batch.isEmpty()) return 0;
+        try {
+            store.inTransaction(() -> {
+                store.insertDlq(batch);
+                store.appendEvents(imported(batch, JobState.dead));
+            });
+            return batch.size();
+        } catch (IllegalArgumentException duplicate) {
+            int ok = 0;
+            for (Job j : batch) {
+                try {
+                    store.inTransaction(() -> {
+                        store.insertDlq(List.of(j));
+                        store.appendEvents(imported(List.of(j), JobState.dead));
+                    });
+                    ok++;
+                } catch (IllegalArgumentException exists) {
+                    // keep the current row
+                }
+            }
+            return ok;
+        }
+    }
+
+    /** {@code enqueued} events into each job's imported state, or {@code state} when given. */
+    private static List<JobEvent> imported(List<Job> jobs, JobState state) {
+        Instant now = Instant.now();
+        List<JobEvent> events = new ArrayList<>(jobs.size());
+        for (Job j : jobs) {
+            JobEvent e = new JobEvent(j.id, JobEventType.enqueued, null, state != null ? state : j.state, now);
+            e.detail = "imported";
+            events.add(e);
+        }
+        return events;
+    }
+
+    private void insertDeps(List<String[]> batch) {
+        if (batch.isEmpty()) return;
+        Map<String, List<String>> byChild = new LinkedHashMap<>();
+        for (String[] d : batch) byChild.computeIfAbsent(d[1], k -> new ArrayList<>()).add(d[0]);
+        store.inTransaction(() -> byChild.forEach(store::saveDependencies));
+        batch.clear();
+    }
+}
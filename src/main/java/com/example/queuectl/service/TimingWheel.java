@@ -0,0 +1,106 @@
+package com.example.queuectl.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level {@code L} has {@code slots} buckets each spanning
+ * {@code slots^L} ticks; an entry lives in the lowest level that can hold its remaining delay
+ * and cascades down as the wheel turns. Adding is O(1) and each tick only touches the
+ * buckets that are due, independent of how many entries are scheduled.
+ * <p>
+ * Ticks are abstract longs (the scheduler uses epoch seconds). Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private static final class Entry<T> {
+        final T item;
+        final long due;
+        Entry(T item, long due) {
+            this.item = item;
+            this.due = due;
+        }
+    }
+
+    private final int slots;
+    private final int levels;
+    private final long[] span;
+    private final ArrayDeque<Entry<T>>[][] wheel;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(int slots, int levels, long startTick) {
+        if (slots < 2 || levels < 1) throw new IllegalArgumentException("slots >= 2 and levels >= 1 required");
+        this.slots = slots;
+        this.levels = levels;
+        this.span = new long[levels + 1];
+        span[0] = 1;
+        for (int l = 1; l <= levels; l++) {
+            span[l] = Math.multiplyExact(span[l - 1], slots);
+        }
+        this.wheel = new ArrayDeque[levels][slots];
+        for (int l = 0; l < levels; l++) {
+            for (int s = 0; s < slots; s++) wheel[l][s] = new ArrayDeque<>();
+        }
+        this.currentTick = startTick;
+    }
+
+    public long currentTick() { return currentTick; }
+
+    public int size() { return size; }
+
+    /** Schedule {@code item} to expire at {@code dueTick}; past ticks expire on the next tick. */
+    public void add(T item, long dueTick) {
+        place(new Entry<>(item, Math.max(dueTick, currentTick + 1)));
+        size++;
+    }
+
+    /** Advance one tick and return the entries that expired on it. */
+    public List<T> tick() {
+        currentTick++;
+        long t = currentTick;
+        // cascade coarse levels first so entries can fall through to the buckets handled below
+        for (int l = levels - 1; l >= 1; l--) {
+            if (t % span[l] != 0) continue;
+            ArrayDeque<Entry<T>> bucket = wheel[l][(int) ((t / span[l]) % slots)];
+            int n = bucket.size();
+            for (int i = 0; i < n; i++) place(bucket.poll());
+        }
+        ArrayDeque<Entry<T>> due = wheel[0][(int) (t % slots)];
+        if (due.isEmpty()) return List.of();
+        List<T> out = new ArrayList<>(due.size());
+        int n = due.size();
+        for (int i = 0; i < n; i++) {
+            Entry<T> e = due.poll();
+            if (e.due <= t) {
+                out.add(e.item);
+                size--;
+            } else {
+                place(e);
+            }
+        }
+        return out;
+    }
+
+    /** Advance to {@code tick} (inclusive), collecting every expiry along the way. */
+    public List<T> advanceTo(long tick) {
+        List<T> out = new ArrayList<>();
+        while (currentTick < tick) out.addAll(tick());
+        return out;
+    }
+
+    private void place(Entry<T> e) {
+        long delta = e.due - currentTick;
+        for (int l = 0; l < levels; l++) {
+            if (delta < span[l + 1]) {
+                wheel[l][(int) ((e.due / span[l]) % slots)].add(e);
+                return;
+            }
+        }
+        // beyond the wheel horizon: park in the top-level bucket that cascades last, re-placed from there
+        int top = levels - 1;
+        wheel[top][(int) ((currentTick / span[top] + slots - 1) % slots)].add(e);
+    }
+}
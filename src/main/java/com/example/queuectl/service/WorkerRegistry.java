@@ -0,0 +1,158 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.WorkerInfo;
+import com.example.queuectl.storage.StorePort;
+import com.example.queuectl.util.Clock;
+import com.example.queuectl.util.NodeId;
+import com.example.queuectl.util.Partitions;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster membership backed by the {@code workers} table. Each worker heartbeats its row; a node is
+ * live while any of its workers heartbeated within {@code 3 * heartbeat_sec}. Live nodes are sorted
+ * by id and node {@code i} of {@code n} prefers the {@code i}-th slice of the partition key space.
+ * Rows silent for {@code PRUNE_AFTER} are deleted; a worker whose row was pruned registers again on
+ * its next heartbeat.
+ */
+@Service
+public class WorkerRegistry {
+
+    static final int LIVE_FACTOR = 3;
+    static final Duration PRUNE_AFTER = Duration.ofMinutes(10);
+
+    /** Per-node aggregate for {@code status}. */
+    public static final class NodeStats {
+        public final String nodeId;
+        public final int workers;
+        public final long jobsDone;
+        public final long jobsFailed;
+        public final double perMinute;
+
+        NodeStats(String nodeId, int workers, long jobsDone, long jobsFailed, double perMinute) {
+            this.nodeId = nodeId;
+            this.workers = workers;
+            this.jobsDone = jobsDone;
+            this.jobsFailed = jobsFailed;
+            this.perMinute = perMinute;
+        }
+    }
+
+    private static final class Counters {
+        final Instant startedAt;
+        final AtomicLong done = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        Counters(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final StorePort store;
+    private final Clock clock = new Clock();
+    private final String nodeId = NodeId.get();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private volatile int[] partition = {0, Partitions.SPACE};
+    private volatile long lastRefreshMs;
+
+    public WorkerRegistry(StorePort store) {
+        this.store = store;
+    }
+
+    public String nodeId() { return nodeId; }
+
+    public void register(String workerId) {
+        Instant now = clock.now();
+        store.registerWorker(info(workerId, now, now));
+        counters.put(workerId, new Counters(now));
+    }
+
+    private WorkerInfo info(String workerId, Instant startedAt, Instant now) {
+        WorkerInfo w = new WorkerInfo();
+        w.workerId = workerId;
+        w.nodeId = nodeId;
+        w.startedAt = startedAt;
+        w.heartbeatAt = now;
+        return w;
+    }
+
+    public void recordDone(String workerId) {
+        Counters c = counters.get(workerId);
+        if (c != null) c.done.incrementAndGet();
+    }
+
+    public void recordFailed(String workerId) {
+        Counters c = counters.get(workerId);
+        if (c != null) c.failed.incrementAndGet();
+    }
+
+    /** Flush counters and refresh this worker's heartbeat; re-evaluates membership at most once per interval. */
+    public synchronized void heartbeat(String workerId, int heartbeatSec) {
+        Counters c = counters.get(workerId);
+        long done = c == null ? 0 : c.done.getAndSet(0);
+        long failed = c == null ? 0 : c.failed.getAndSet(0);
+        Instant now = clock.now();
+        if (!store.heartbeatWorker(workerId, now, done, failed) && c != null) {
+            // pruned while unreachable; come back with the counters accumulated since
+            store.registerWorker(info(workerId, c.startedAt, now));
+            store.heartbeatWorker(workerId, now, done, failed);
+        }
+        if (System.currentTimeMillis() - lastRefreshMs >= heartbeatSec * 1000L) refresh(heartbeatSec);
+    }
+
+    public synchronized void deregister(String workerId) {
+        Counters c = counters.remove(workerId);
+        if (c != null && (c.done.get() > 0 || c.failed.get() > 0)) {
+            store.heartbeatWorker(workerId, clock.now(), c.done.get(), c.failed.get());
+        }
+        store.deregisterWorker(workerId);
+    }
+
+    /** Half-open partition key range {@code [lo, hi)} this node prefers to claim from. */
+    public int[] partition() { return partition; }
+
+    public synchronized void refresh(int heartbeatSec) {
+        lastRefreshMs = System.currentTimeMillis();
+        Instant now = clock.now();
+        store.pruneWorkers(now.minus(PRUNE_AFTER));
+        List<String> live = liveNodes(store.loadWorkers(), now, heartbeatSec);
+        int index = live.indexOf(nodeId);
+        partition = index < 0 ? new int[]{0, Partitions.SPACE} : Partitions.range(index, live.size());
+    }
+
+    public List<NodeStats> nodes(int heartbeatSec) {
+        Instant now = clock.now();
+        Map<String, List<WorkerInfo>> byNode = new TreeMap<>();
+        List<WorkerInfo> all = store.loadWorkers();
+        Set<String> live = new HashSet<>(liveNodes(all, now, heartbeatSec));
+        for (WorkerInfo w : all) {
+            if (live.contains(w.nodeId)) byNode.computeIfAbsent(w.nodeId, k -> new ArrayList<>()).add(w);
+        }
+        List<NodeStats> out = new ArrayList<>();
+        for (var e : byNode.entrySet()) {
+            long done = 0, failed = 0;
+            Instant since = now;
+            for (WorkerInfo w : e.getValue()) {
+                done += w.jobsDone;
+                failed += w.jobsFailed;
+                if (w.startedAt.isBefore(since)) since = w.startedAt;
+            }
+            double minutes = Math.max(1, Duration.between(since, now).getSeconds()) / 60.0;
+            out.add(new NodeStats(e.getKey(), e.getValue().size(), done, failed, done / minutes));
+        }
+        return out;
+    }
+
+    static List<String> liveNodes(List<WorkerInfo> workers, Instant now, int heartbeatSec) {
+        Instant cutoff = now.minusSeconds((long) heartbeatSec * LIVE_FACTOR);
+        TreeSet<String> nodes = new TreeSet<>();
+        for (WorkerInfo w : workers) {
+            if (w.heartbeatAt.isAfter(cutoff)) nodes.add(w.nodeId);
+        }
+        return new ArrayList<>(nodes);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.queuectl.service;
 
 import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobResult;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -12,57 +13,139 @@ public class WorkerService {
 
     private final JobService jobService;
     private final CommandRunner runner;
+    private final WorkerRegistry registry;
 
     private ExecutorService pool;
+    /** Heartbeats come from their own thread so a long job does not make its node look dead. */
+    private ScheduledExecutorService heartbeats;
+    private final Set<String> workerIds = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
 
-    public WorkerService(JobService jobService, CommandRunner runner) {
+    public WorkerService(JobService jobService, CommandRunner runner, WorkerRegistry registry) {
         this.jobService = jobService;
         this.runner = runner;
+        this.registry = registry;
     }
 
     public synchronized String start(int count) {
         if (running.get()) return "Workers already running.";
+        Map<String,Object> cfg = jobService.config();
+        SchedulingPolicy policy;
+        try {
+            int agingSec = Integer.parseInt(cfg.getOrDefault("aging_sec", 60).toString());
+            policy = SchedulingPolicy.of(cfg.getOrDefault("scheduling_policy", "strict").toString(), agingSec);
+            BackoffService backoff = new BackoffService(
+                    BackoffService.Strategy.of(cfg.getOrDefault("backoff_strategy", "exponential").toString()),
+                    Long.parseLong(cfg.getOrDefault("backoff_max_sec", BackoffService.DEFAULT_MAX_SEC).toString()));
+            jobService.setRetryPolicy(backoff,
+                    Double.parseDouble(cfg.getOrDefault("retry_budget_ratio", 0).toString()),
+                    Double.parseDouble(cfg.getOrDefault("retry_budget_min_per_sec", 1).toString()));
+        } catch (IllegalArgumentException e) {
+            return "Workers not started: " + e.getMessage();
+        }
         running.set(true);
         pool = Executors.newFixedThreadPool(count);
-        Map<String,Object> cfg = jobService.config();
         int heartbeat = Integer.parseInt(cfg.getOrDefault("heartbeat_sec", 5).toString());
         int timeout = Integer.parseInt(cfg.getOrDefault("job_timeout_sec", 60).toString());
         int base = Integer.parseInt(cfg.getOrDefault("backoff_base", 2).toString());
+        runner.setKillGraceSeconds(Integer.parseInt(cfg.getOrDefault("kill_grace_sec", 5).toString()));
+        runner.setMaxOutputBytes(Integer.parseInt(cfg.getOrDefault("max_output_bytes", JobResult.DEFAULT_MAX_BYTES).toString()));
+        int groupCommitMs = Integer.parseInt(cfg.getOrDefault("group_commit_ms", 0).toString());
+        int groupCommitMax = Integer.parseInt(cfg.getOrDefault("group_commit_max", 64).toString());
+        jobService.startGroupCommit(groupCommitMs, groupCommitMax);
+        jobService.setSchedulingPolicy(policy);
 
         for (int i = 0; i < count; i++) {
             String workerId = "w-" + UUID.randomUUID().toString().substring(0,8);
-            Future<?> f = pool.submit(() -> loop(workerId, heartbeat, timeout, base));
+            registry.register(workerId);
+            workerIds.add(workerId);
+            Future<?> f = pool.submit(() -> loop(workerId, timeout, base));
             futures.add(f);
         }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "queuectl-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeats.scheduleWithFixedDelay(() -> beat(heartbeat), heartbeat, heartbeat, TimeUnit.SECONDS);
         return "Started " + count + " worker(s).";
     }
 
-    private void loop(String workerId, int heartbeatSec, int timeoutSec, int base) {
-        long lastBeat = 0;
-        while (running.get()) {
-            long now = System.currentTimeMillis();
-            if (now - lastBeat > heartbeatSec * 1000L) {
-                lastBeat = now;
+    private void beat(int heartbeatSec) {
+        for (String workerId : workerIds) {
+            try {
+                registry.heartbeat(workerId, heartbeatSec);
+            } catch (Exception e) {
+                System.err.println(workerId + ": heartbeat failed: " + e.getMessage());
             }
-            Optional<Job> claim = jobService.claimNext(workerId);
-            if (claim.isEmpty()) {
-                sleepQuiet(300);
-                continue;
+        }
+    }
+
+    private void loop(String workerId, int timeoutSec, int base) {
+        try {
+            while (running.get()) {
+                try {
+                    work(workerId, timeoutSec, base);
+                } catch (Exception e) {
+                    System.err.println(workerId + ": job handling failed: " + e.getMessage());
+                    sleepQuiet(1000);
+                }
             }
-            Job job = claim.get();
-            CommandRunner.Result r = runner.run(job.command, timeoutSec);
+        } finally {
+            workerIds.remove(workerId);
+            try {
+                registry.deregister(workerId);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /** Claim and run one job; sleeps briefly when there is nothing to do. */
+    private void work(String workerId, int timeoutSec, int base) {
+        int[] part = registry.partition();
+        Optional<Job> claim = jobService.claimNext(workerId, part[0], part[1]);
+        if (claim.isEmpty()) {
+            sleepQuiet(300);
+            return;
+        }
+        Job job = claim.get();
+        CommandRunner.Result r = runner.run(job.command, timeoutSec, CommandRunner.Limits.of(job));
+        try {
             if (r.exitCode == 0) {
-                jobService.complete(job.id);
+                jobService.complete(job.id, workerId, r.output, r.usage);
             } else {
-                String tail = r.output == null ? ("exit=" + r.exitCode) :
-                        ("exit=" + r.exitCode + "\n" + (r.output.length() > 1500 ? r.output.substring(r.output.length()-1500) : r.output));
-                jobService.fail(job.id, base, tail);
+                jobService.fail(job.id, workerId, base, errorSummary(r), r.output, r.usage);
             }
+        } catch (RuntimeException e) {
+            requeue(workerId, job, e);
+            return;
+        }
+        if (r.exitCode == 0) registry.recordDone(workerId); else registry.recordFailed(workerId);
+    }
+
+    /** The run's outcome could not be recorded; put the job back so it does not stay {@code processing}. */
+    private void requeue(String workerId, Job job, RuntimeException cause) {
+        String reason = "outcome not recorded: " + cause.getMessage();
+        try {
+            jobService.requeue(job.id, workerId, reason);
+            System.err.println(workerId + ": " + job.id + " requeued, " + reason);
+        } catch (RuntimeException e) {
+            System.err.println(workerId + ": " + job.id + " left processing, " + reason + "; requeue failed: " + e.getMessage());
         }
     }
 
+    /** {@code exit=N} plus the last non-blank output line; the full output goes to job_results. */
+    private static String errorSummary(CommandRunner.Result r) {
+        String summary = "exit=" + r.exitCode;
+        if (r.output == null) return summary;
+        String last = null;
+        for (String line : (Iterable<String>) r.output.lines()::iterator) {
+            if (!line.isBlank()) last = line.strip();
+        }
+        if (last == null) return summary;
+        return summary + "\n" + (last.length() > 200 ? last.substring(0, 200) + "..." : last);
+    }
+
     private void sleepQuiet(long ms) {
         try { Thread.sleep(ms); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
     }
@@ -75,6 +158,11 @@ public class WorkerService {
             try { pool.awaitTermination(5, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
             pool.shutdownNow();
         }
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+            heartbeats = null;
+        }
+        jobService.stopGroupCommit();
         futures.clear();
         return "Stopped workers.";
     }
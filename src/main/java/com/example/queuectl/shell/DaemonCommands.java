@@ -0,0 +1,45 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.client.Protocol;
+import com.example.queuectl.service.DaemonService;
+import com.example.queuectl.service.WorkerService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@ShellComponent
+public class DaemonCommands {
+
+    private final DaemonService daemonService;
+    private final WorkerService workerService;
+
+    public DaemonCommands(DaemonService daemonService, WorkerService workerService) {
+        this.daemonService = daemonService;
+        this.workerService = workerService;
+    }
+
+    @ShellMethod(key = "daemon start", value = "Serve thin clients on a Unix socket, optionally with workers. Example: daemon start --workers 4")
+    public String start(@ShellOption(defaultValue = ShellOption.NULL) String socket,
+                        @ShellOption(defaultValue = "0") int workers) throws IOException {
+        Path path = socket == null ? Protocol.defaultSocket() : Paths.get(socket);
+        String res = daemonService.start(path);
+        if (workers > 0 && daemonService.isRunning()) {
+            res += System.lineSeparator() + workerService.start(workers);
+        }
+        return res;
+    }
+
+    @ShellMethod(key = "daemon stop", value = "Stop serving thin clients.")
+    public String stop() {
+        return daemonService.stop();
+    }
+
+    @ShellMethod(key = "daemon status", value = "Show whether the daemon socket is open.")
+    public String status() {
+        return daemonService.isRunning() ? ("daemon: listening on " + daemonService.socketPath()) : "daemon: stopped";
+    }
+}
@@ -2,7 +2,6 @@ package com.example.queuectl.shell;
 
 import com.example.queuectl.model.Job;
 import com.example.queuectl.service.JobService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 
@@ -10,7 +9,6 @@ import org.springframework.shell.standard.ShellMethod;
 public class EnqueueCommands {
 
     private final JobService jobService;
-    private final ObjectMapper om = com.example.queuectl.util.Jsons.mapper();
 
     public EnqueueCommands(JobService jobService) {
         this.jobService = jobService;
@@ -18,14 +16,21 @@ public class EnqueueCommands {
 
     @ShellMethod(key = "enqueue", value = "Add a new job. Example: enqueue {\"id\":\"job1\",\"command\":\"echo hi\"}")
     public String enqueue(String jobJson) {
+        Job j;
+        try {
+            j = Job.fromJson(jobJson);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            return "Invalid JSON: " + e.getMessage();
+        }
         try {
-            Job j = om.readValue(jobJson, Job.class);
-            if (j.id == null || j.id.isBlank()) return "id is required";
-            if (j.command == null || j.command.isBlank()) return "command is required";
             jobService.enqueue(j);
             return "Enqueued " + j.id;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
         } catch (Exception e) {
-            return "Invalid JSON: " + e.getMessage();
+            return "Enqueue failed: " + e.getMessage();
         }
     }
 }
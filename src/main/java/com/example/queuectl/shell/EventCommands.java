@@ -0,0 +1,48 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.service.EventCursor;
+import com.example.queuectl.service.JobService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class EventCommands {
+
+    private final JobService jobService;
+
+    public EventCommands(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @ShellMethod(key = "events tail", value = "Print job lifecycle events after a cursor. Example: events tail --from 1200 --follow 1")
+    public String tail(@ShellOption(defaultValue = "-1", help = "last seq already seen; default shows the most recent --limit events") long from,
+                       @ShellOption(defaultValue = "100") int limit,
+                       @ShellOption(defaultValue = "0", help = "keep polling every N seconds") int follow) {
+        if (limit < 1) return "--limit must be at least 1";
+        EventCursor cursor = new EventCursor(jobService::events,
+                from >= 0 ? from : Math.max(0, jobService.latestEventSeq() - limit));
+        try {
+            while (true) {
+                for (JobEvent e : cursor.read(limit)) System.out.println(format(e));
+                System.out.flush();
+                if (follow > 0 && cursor.more()) continue;
+                if (follow <= 0 || Thread.currentThread().isInterrupted()) break;
+                Thread.sleep(follow * 1000L);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "cursor: " + cursor.cursor();
+    }
+
+    private static String format(JobEvent e) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8d %s %-9s %-20s %s -> %s",
+                e.seq, e.at, e.type, e.jobId, e.fromState == null ? "-" : e.fromState, e.toState));
+        if (e.workerId != null) sb.append("  worker=").append(e.workerId);
+        if (e.detail != null) sb.append("  ").append(e.detail);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobResult;
+import com.example.queuectl.model.JobUsage;
+import com.example.queuectl.service.JobService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+import java.util.Optional;
+
+@ShellComponent
+public class JobCommands {
+
+    private final JobService jobService;
+
+    public JobCommands(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @ShellMethod(key = "job show", value = "Show one job with the output of its last run. Example: job show job1")
+    public String show(String id) {
+        Optional<Job> opt = jobService.find(id);
+        if (opt.isEmpty()) return "No job with id " + id;
+        Job j = opt.get();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s %s%n", "id", j.id));
+        sb.append(String.format("%-12s %s%n", "state", j.state == null ? "dead" : j.state.name()));
+        sb.append(String.format("%-12s %s%n", "command", j.command));
+        sb.append(String.format("%-12s %d/%d%n", "attempts", j.attempts, j.maxRetries));
+        sb.append(String.format("%-12s %d%n", "priority", j.priority));
+        sb.append(String.format("%-12s %s%n", "updated_at", j.updatedAt));
+        if (j.runAt != null) sb.append(String.format("%-12s %s%n", "run_at", j.runAt));
+        if (j.cpuLimitSec != null || j.memoryLimitMb != null || j.openFilesLimit != null) {
+            sb.append(String.format("%-12s cpu=%s memory_mb=%s open_files=%s%n", "limits",
+                    j.cpuLimitSec == null ? "-" : j.cpuLimitSec + "s",
+                    j.memoryLimitMb == null ? "-" : j.memoryLimitMb,
+                    j.openFilesLimit == null ? "-" : j.openFilesLimit));
+        }
+        if (j.deadline != null) sb.append(String.format("%-12s %s%n", "deadline", j.deadline));
+        if (j.workerId != null) sb.append(String.format("%-12s %s%n", "worker", j.workerId));
+        if (j.unresolvedParents > 0) sb.append(String.format("%-12s %d%n", "waiting_on", j.unresolvedParents));
+        if (j.lastError != null) sb.append(String.format("%-12s %s%n", "last_error", j.lastError.lines().findFirst().orElse("")));
+
+        for (JobUsage u : jobService.usage(id)) {
+            sb.append(String.format("%-12s #%d exit=%d wall=%s cpu=%s rss=%s out=%s%n", "run",
+                    u.attempt, u.exitCode, StatsCommands.millis(u.wallMs),
+                    u.cpuUserMs == null ? "-" : StatsCommands.millis(u.cpuUserMs + u.cpuSysMs),
+                    u.peakRssKb == null ? "-" : StatsCommands.kib(u.peakRssKb),
+                    StatsCommands.bytes(u.outputBytes)));
+        }
+
+        Optional<JobResult> r = jobService.result(id);
+        if (r.isEmpty()) {
+            sb.append("output       (none recorded)").append(System.lineSeparator());
+        } else {
+            JobResult res = r.get();
+            sb.append(String.format("output       %d bytes (%s, %d stored)%n", res.originalBytes, res.codec, res.data.length));
+            sb.append(res.output());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.model.Schedule;
+import com.example.queuectl.service.SchedulerService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.util.List;
+
+@ShellComponent
+public class ScheduleCommands {
+
+    private final SchedulerService schedulerService;
+
+    public ScheduleCommands(SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
+    }
+
+    @ShellMethod(key = "schedule add", value = "Add a recurring job. Example: schedule add nightly \"./backup.sh\" --cron \"0 2 * * *\" | --every 60")
+    public String add(String id, String command,
+                      @ShellOption(defaultValue = ShellOption.NULL) String cron,
+                      @ShellOption(defaultValue = "0") int every,
+                      @ShellOption(defaultValue = "0") int priority) {
+        Schedule s = new Schedule(id, command);
+        s.cron = cron;
+        s.intervalSec = every > 0 ? every : null;
+        s.priority = priority;
+        try {
+            schedulerService.add(s);
+            return "Scheduled " + id;
+        } catch (IllegalArgumentException e) {
+            return "Invalid schedule: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "schedule list", value = "List recurring jobs.")
+    public String list() {
+        List<Schedule> rows = schedulerService.list();
+        if (rows.isEmpty()) return "(no schedules)";
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %-20s %-8s %s%n", "id", "when", "enabled", "command"));
+        for (Schedule s : rows) {
+            String when = s.cron != null ? s.cron : ("every " + s.intervalSec + "s");
+            sb.append(String.format("%-16s %-20s %-8s %s%n", s.id, when, s.enabled, s.command));
+        }
+        return sb.toString();
+    }
+
+    @ShellMethod(key = "schedule remove", value = "Remove a recurring job by id.")
+    public String remove(String id) {
+        return schedulerService.remove(id) ? ("Removed " + id) : ("No schedule with id " + id);
+    }
+
+    @ShellMethod(key = "scheduler start", value = "Start materializing schedules on this node (one leader enqueues).")
+    public String start() {
+        return schedulerService.start();
+    }
+
+    @ShellMethod(key = "scheduler stop", value = "Stop the scheduler on this node.")
+    public String stop() {
+        return schedulerService.stop();
+    }
+
+    @ShellMethod(key = "scheduler status", value = "Show scheduler state on this node.")
+    public String status() {
+        if (!schedulerService.isRunning()) return "scheduler: stopped";
+        return "scheduler: running, leader=" + schedulerService.isLeader() + ", armed=" + schedulerService.armedCount();
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.queuectl.shell;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.queuectl.model.Job;
+import com.example.queuectl.service.JobService;
 import org.springframework.context.ApplicationContext;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Run commands from a script file. Each non-empty, non-comment line must be a valid CLI command.
@@ -19,12 +25,46 @@ import java.util.List;
  *   enqueue '{"id":"job1","command":"echo hi"}'
  *   worker start 2
  *   config set max_retries 2
+ *
+ * The file is streamed line by line. Target beans and methods are resolved once into a dispatch
+ * plan of bound method handles, and runs of consecutive {@code enqueue} lines are inserted in
+ * batches of {@value #ENQUEUE_BATCH} per transaction.
  */
 @ShellComponent
 public class ScriptCommands {
 
-    @Autowired
-    private ApplicationContext context;
+    private static final int ENQUEUE_BATCH = 1000;
+    private static final String ENQUEUE = "enqueue ";
+
+    /** A scripted command: matched by prefix, its arguments parsed from the line, invoked via a bound handle. */
+    private static final class Route {
+        final String prefix;
+        final boolean exact;
+        final Function<String, Object[]> args;
+        final MethodHandle handle;
+        final boolean printResult;
+
+        Route(String prefix, boolean exact, Function<String, Object[]> args, MethodHandle handle, boolean printResult) {
+            this.prefix = prefix;
+            this.exact = exact;
+            this.args = args;
+            this.handle = handle;
+            this.printResult = printResult;
+        }
+
+        boolean matches(String line) {
+            return exact ? line.equals(prefix) : line.startsWith(prefix);
+        }
+    }
+
+    private final ApplicationContext context;
+    private final JobService jobService;
+    private volatile List<Route> plan;
+
+    public ScriptCommands(ApplicationContext context, JobService jobService) {
+        this.context = context;
+        this.jobService = jobService;
+    }
 
     @ShellMethod(key = "script", value = "Execute commands from a script file line by line.")
     public String runScript(String filePath) throws IOException {
@@ -33,107 +73,155 @@ public class ScriptCommands {
             return "❌ File not found: " + filePath;
         }
 
-        List<String> lines = Files.readAllLines(path);
+        List<Route> routes = plan();
+        List<Job> enqueues = new ArrayList<>();
         int executed = 0;
 
-        for (String raw : lines) {
-            String line = raw == null ? "" : raw.trim();
-            if (line.isEmpty() || line.startsWith("#")) continue;
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            String raw;
+            while ((raw = br.readLine()) != null) {
+                String line = raw.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                executed++;
 
-            System.out.println("▶ " + line);
-
-            try {
-                // dispatch by prefix
-                if (line.startsWith("enqueue ")) {
-                    // everything after 'enqueue ' is the JSON arg (keep quotes as-is)
-                    String arg = line.substring("enqueue ".length()).trim();
-                    invokeBeanMethod("com.example.queuectl.shell.EnqueueCommands", "enqueue", new Class[]{String.class}, new Object[]{arg});
-                } else if (line.startsWith("worker start")) {
-                    String[] parts = line.split("\\s+");
-                    int count = 1;
-                    if (parts.length >= 3) {
-                        try { count = Integer.parseInt(parts[2]); } catch (NumberFormatException ignored) {}
+                if (line.startsWith(ENQUEUE)) {
+                    try {
+                        enqueues.add(Job.fromJson(line.substring(ENQUEUE.length())));
+                    } catch (Exception e) {
+                        System.out.println("▶ " + line);
+                        System.out.println("⚠ Error executing command: " + e.getMessage());
                     }
-                    invokeBeanMethod("com.example.queuectl.shell.WorkerCommands", "start", new Class[]{int.class}, new Object[]{count});
-                } else if (line.startsWith("worker stop")) {
-                    invokeBeanMethod("com.example.queuectl.shell.WorkerCommands", "stop", new Class[0], new Object[0]);
-                } else if (line.startsWith("config set")) {
-                    // config set key value
-                    String[] parts = line.split("\\s+", 4);
-                    if (parts.length >= 4) {
-                        String key = parts[2];
-                        String value = parts[3];
-                        invokeBeanMethod("com.example.queuectl.shell.ConfigCommands", "set", new Class[]{String.class, String.class}, new Object[]{key, value});
-                    } else {
-                        System.out.println("⚠ Invalid config set syntax. Expect: config set <key> <value>");
-                    }
-                } else if (line.equals("status")) {
-                    Object res = invokeBeanMethod("com.example.queuectl.shell.StatusCommands", "status", new Class[0], new Object[0]);
-                    if (res != null) System.out.println(res.toString());
-                } else if (line.startsWith("list")) {
-                    String[] parts = line.split("\\s+", 2);
-                    String state = parts.length > 1 ? parts[1].trim() : "";
-                    Object res = invokeBeanMethod("com.example.queuectl.shell.ListCommands", "list", new Class[]{String.class}, new Object[]{state});
-                    if (res != null) System.out.println(res.toString());
-                } else if (line.startsWith("dlq list")) {
-                    Object res = invokeBeanMethod("com.example.queuectl.shell.DlqCommands", "list", new Class[0], new Object[0]);
-                    if (res != null) System.out.println(res.toString());
-                } else if (line.startsWith("dlq retry")) {
-                    String[] parts = line.split("\\s+", 3);
-                    if (parts.length >= 3) {
-                        String id = parts[2];
-                        invokeBeanMethod("com.example.queuectl.shell.DlqCommands", "retry", new Class[]{String.class}, new Object[]{id});
-                    } else {
-                        System.out.println("⚠ Invalid dlq retry syntax. Expect: dlq retry <id>");
-                    }
-                } else {
-                    System.out.println("⚠ Unknown or unsupported scripted command: " + line);
+                    if (enqueues.size() >= ENQUEUE_BATCH) flushEnqueues(enqueues);
+                    continue;
                 }
-            } catch (Exception e) {
-                System.out.println("⚠ Error executing command: " + e.getMessage());
-            }
 
-            executed++;
+                // anything else may depend on the jobs queued so far
+                flushEnqueues(enqueues);
+                System.out.println("▶ " + line);
+                try {
+                    dispatch(routes, line);
+                } catch (Exception e) {
+                    System.out.println("⚠ Error executing command: " + e.getMessage());
+                }
+            }
         }
+        flushEnqueues(enqueues);
 
         return "✅ Executed " + executed + " commands from " + filePath;
     }
 
-    /**
-     * Helper that resolves bean by full class name and invokes the requested method reflectively.
-     * Uses bean type lookup to avoid tight compile-time coupling.
-     */
-    private Object invokeBeanMethod(String fullClassName, String methodName, Class<?>[] paramTypes, Object[] params) throws Exception {
-        Class<?> clz;
-        try {
-            clz = Class.forName(fullClassName);
-        } catch (ClassNotFoundException cnf) {
-            // try simple lookup by short name (in case package differs)
-            String shortName = fullClassName.substring(fullClassName.lastIndexOf('.') + 1);
-            Object bean = findBeanBySimpleName(shortName);
-            if (bean == null) {
-                throw new ClassNotFoundException("Bean class not found: " + fullClassName + " and no bean named " + shortName);
+    private void dispatch(List<Route> routes, String line) throws Exception {
+        for (Route r : routes) {
+            if (!r.matches(line)) continue;
+            Object[] args = r.args.apply(line);
+            if (args == null) return;
+            Object res;
+            try {
+                res = r.handle.invokeWithArguments(args);
+            } catch (Exception | Error e) {
+                // errors are not a failed command; let them end the script
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
             }
-            clz = bean.getClass();
-            return invokeMethodOnBean(bean, methodName, paramTypes, params);
+            if (r.printResult && res != null) System.out.println(res.toString());
+            return;
         }
+        System.out.println("⚠ Unknown or unsupported scripted command: " + line);
+    }
 
-        Object bean;
+    private void flushEnqueues(List<Job> batch) {
+        if (batch.isEmpty()) return;
+        System.out.println("▶ enqueue " + batch.size() + " job(s)");
         try {
-            bean = context.getBean(clz);
+            Map<String, String> rejected = jobService.enqueueAll(batch);
+            for (String reason : rejected.values()) System.out.println("⚠ " + reason);
         } catch (Exception e) {
-            // fallback: try find bean by simple name
-            String simple = clz.getSimpleName();
-            bean = findBeanBySimpleName(simple);
-            if (bean == null) {
-                throw new IllegalStateException("No Spring bean found for class: " + fullClassName);
+            System.out.println("⚠ Error executing command: " + e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private List<Route> plan() {
+        List<Route> p = plan;
+        if (p == null) {
+            synchronized (this) {
+                if (plan == null) plan = compile();
+                p = plan;
             }
         }
+        return p;
+    }
 
-        return invokeMethodOnBean(bean, methodName, paramTypes, params);
+    /** Resolve every scripted command to its bean method once; lines are then matched in this order. */
+    private List<Route> compile() {
+        List<Route> routes = new ArrayList<>();
+        try {
+            routes.add(new Route("worker start", false, line -> {
+                String[] parts = line.split("\\s+");
+                int count = 1;
+                if (parts.length >= 3) {
+                    try { count = Integer.parseInt(parts[2]); } catch (NumberFormatException ignored) {}
+                }
+                return new Object[]{count};
+            }, handle("com.example.queuectl.shell.WorkerCommands", "start", int.class), false));
+
+            routes.add(new Route("worker stop", false, line -> new Object[0],
+                    handle("com.example.queuectl.shell.WorkerCommands", "stop"), false));
+
+            routes.add(new Route("config set", false, line -> {
+                String[] parts = line.split("\\s+", 4);
+                if (parts.length < 4) {
+                    System.out.println("⚠ Invalid config set syntax. Expect: config set <key> <value>");
+                    return null;
+                }
+                return new Object[]{parts[2], parts[3]};
+            }, handle("com.example.queuectl.shell.ConfigCommands", "set", String.class, String.class), false));
+
+            routes.add(new Route("status", true, line -> new Object[]{0},
+                    handle("com.example.queuectl.shell.StatusCommands", "status", int.class), true));
+
+            routes.add(new Route("list", false, line -> {
+                String[] parts = line.split("\\s+", 2);
+                return new Object[]{parts.length > 1 ? parts[1].trim() : ""};
+            }, handle("com.example.queuectl.shell.ListCommands", "list", String.class), true));
+
+            routes.add(new Route("dlq list", false, line -> new Object[0],
+                    handle("com.example.queuectl.shell.DlqCommands", "list"), true));
+
+            routes.add(new Route("dlq retry", false, line -> {
+                String[] parts = line.split("\\s+", 3);
+                if (parts.length < 3) {
+                    System.out.println("⚠ Invalid dlq retry syntax. Expect: dlq retry <id>");
+                    return null;
+                }
+                return new Object[]{parts[2]};
+            }, handle("com.example.queuectl.shell.DlqCommands", "retry", String.class), false));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot build script dispatch plan: " + e.getMessage(), e);
+        }
+        return routes;
     }
 
-    private Object invokeMethodOnBean(Object bean, String methodName, Class<?>[] paramTypes, Object[] params) throws Exception {
+    /**
+     * Resolve the bean by full class name (falling back to its simple name) and bind the requested
+     * method to it. Keeps scripts free of compile-time coupling to the command classes.
+     */
+    private MethodHandle handle(String fullClassName, String methodName, Class<?>... paramTypes) throws ReflectiveOperationException {
+        Object bean = null;
+        try {
+            bean = context.getBean(Class.forName(fullClassName));
+        } catch (ClassNotFoundException | org.springframework.beans.BeansException ignored) {
+            // try lookup by short name (in case package differs)
+        }
+        if (bean == null) {
+            String shortName = fullClassName.substring(fullClassName.lastIndexOf('.') + 1);
+            bean = findBeanBySimpleName(shortName);
+            if (bean == null) {
+                throw new ClassNotFoundException("Bean class not found: " + fullClassName + " and no bean named " + shortName);
+            }
+        }
+
         Method m = null;
         try {
             m = bean.getClass().getMethod(methodName, paramTypes);
@@ -149,12 +237,7 @@ public class ScriptCommands {
                 throw new NoSuchMethodException("Method " + methodName + " not found on " + bean.getClass().getName());
             }
         }
-
-        try {
-            return m.invoke(bean, params);
-        } catch (InvocationTargetException ite) {
-            throw new Exception("Invocation error: " + ite.getTargetException().getMessage(), ite.getTargetException());
-        }
+        return MethodHandles.publicLookup().unreflect(m).bindTo(bean);
     }
 
     private Object findBeanBySimpleName(String simpleName) {
@@ -163,11 +246,10 @@ public class ScriptCommands {
         if (context.containsBean(lower)) {
             return context.getBean(lower);
         }
-        // fallback: search all beans for matching simple class name
-        String[] names = context.getBeanDefinitionNames();
-        for (String name : names) {
-            Object b = context.getBean(name);
-            if (b.getClass().getSimpleName().equals(simpleName)) return b;
+        // fallback: match on bean types without instantiating every bean in the context
+        for (String name : context.getBeanDefinitionNames()) {
+            Class<?> type = context.getType(name);
+            if (type != null && type.getSimpleName().equals(simpleName)) return context.getBean(name);
         }
         return null;
     }
@@ -0,0 +1,32 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.service.SnapshotService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@ShellComponent
+public class SnapshotCommands {
+
+    private final SnapshotService snapshots;
+
+    public SnapshotCommands(SnapshotService snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @ShellMethod(key = "export", value = "Write jobs, DLQ and config to a gzip JSONL snapshot. Example: export backup.jsonl.gz")
+    public String export(String file) throws IOException {
+        return snapshots.exportTo(Paths.get(file));
+    }
+
+    @ShellMethod(key = "import", value = "Load a snapshot written by export; existing ids are kept. Example: import backup.jsonl.gz")
+    public String importSnapshot(String file) throws IOException {
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) return "❌ File not found: " + file;
+        return snapshots.importFrom(path);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.model.UsageStats;
+import com.example.queuectl.service.JobService;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@ShellComponent
+public class StatsCommands {
+
+    private final JobService jobService;
+
+    public StatsCommands(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @ShellMethod(key = "stats", value = "Resource usage per command over recent runs. Example: stats --hours 6")
+    public String stats(@ShellOption(defaultValue = "24") int hours) {
+        List<UsageStats> rows = jobService.usageStats(Instant.now().minus(Duration.ofHours(hours)));
+        if (rows.isEmpty()) return "No runs recorded in the last " + hours + "h.";
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %6s %6s %10s %10s %10s %10s %10s %10s%n",
+                "command", "runs", "failed", "avg_wall", "max_wall", "avg_cpu", "total_cpu", "peak_rss", "avg_out"));
+        for (UsageStats s : rows) {
+            sb.append(String.format("%-20s %6d %6d %10s %10s %10s %10s %10s %10s%n",
+                    s.commandKey.length() > 20 ? s.commandKey.substring(0, 19) + "…" : s.commandKey,
+                    s.runs, s.failures,
+                    millis(s.avgWallMs), millis(s.maxWallMs), millis(s.avgCpuMs), millis(s.totalCpuMs),
+                    kib(s.maxPeakRssKb), bytes(s.avgOutputBytes)));
+        }
+        return sb.toString();
+    }
+
+    static String millis(long ms) {
+        if (ms < 1000) return ms + "ms";
+        if (ms < 60_000) return String.format("%.1fs", ms / 1000.0);
+        if (ms < 3_600_000) return String.format("%.1fm", ms / 60_000.0);
+        return String.format("%.1fh", ms / 3_600_000.0);
+    }
+
+    static String kib(long kb) {
+        if (kb < 1024) return kb + "K";
+        if (kb < 1024 * 1024) return String.format("%.1fM", kb / 1024.0);
+        return String.format("%.1fG", kb / (1024.0 * 1024));
+    }
+
+    static String bytes(long b) {
+        return b < 1024 ? b + "B" : kib(b / 1024);
+    }
+}
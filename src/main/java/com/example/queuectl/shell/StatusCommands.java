@@ -1,25 +1,80 @@
 package com.example.queuectl.shell;
 
+import com.example.queuectl.model.JobEvent;
 import com.example.queuectl.model.JobState;
+import com.example.queuectl.service.EventCursor;
 import com.example.queuectl.service.JobService;
+import com.example.queuectl.service.WorkerRegistry;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 
+import java.time.LocalTime;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 @ShellComponent
 public class StatusCommands {
 
     private final JobService jobService;
+    private final WorkerRegistry registry;
 
-    public StatusCommands(JobService jobService) {
+    public StatusCommands(JobService jobService, WorkerRegistry registry) {
         this.jobService = jobService;
+        this.registry = registry;
     }
 
 
-    @ShellMethod(key = "status", value = "Show job counts by state.")
-    public String status() {
+    /**
+     * Full recount interval while watching; deltas from the event log can drift from rows deleted outside it,
+     * and events that commit below the snapshot's cursor are only picked up here.
+     */
+    private static final long RESYNC_MS = 30_000;
+
+    @ShellMethod(key = "status", value = "Show job counts by state. Example: status --watch 1")
+    public String status(@ShellOption(defaultValue = "0", help = "refresh every N seconds from the event log") int watch) {
+        if (watch <= 0) return summary() + nodes();
+
+        JobService.StatusSnapshot snap = jobService.statusSnapshot();
+
+        Map<JobState, Long> counts = new EnumMap<>(JobState.class);
+        counts.putAll(snap.counts);
+        EventCursor cursor = new EventCursor(jobService::events, snap.cursor);
+        long resyncAt = System.currentTimeMillis() + RESYNC_MS;
+        System.out.print(render(counts) + nodes());
+        System.out.flush();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(watch * 1000L);
+                boolean changed = false;
+                if (System.currentTimeMillis() >= resyncAt) {
+                    snap = jobService.statusSnapshot();
+                    changed = !snap.counts.equals(counts);
+                    counts.clear();
+                    counts.putAll(snap.counts);
+                    cursor = new EventCursor(jobService::events, snap.cursor);
+                    resyncAt = System.currentTimeMillis() + RESYNC_MS;
+                }
+                do {
+                    for (JobEvent e : cursor.read(1000)) {
+                        if (e.fromState != null) counts.merge(e.fromState, -1L, Long::sum);
+                        counts.merge(e.toState, 1L, Long::sum);
+                        changed = true;
+                    }
+                } while (cursor.more());
+                if (changed) {
+                    System.out.println(line(counts));
+                    System.out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "";
+    }
+
+    private String summary() {
         Map<JobState, Long> c = new EnumMap<>(JobState.class);
         c.putAll(jobService.counts());
 
@@ -40,5 +95,31 @@ public class StatusCommands {
         return sb.toString();
     }
 
+    private static String render(Map<JobState, Long> c) {
+        StringBuilder sb = new StringBuilder();
+        for (JobState s : JobState.values()) {
+            sb.append(String.format("%-11s : %d%n", s.name(), c.getOrDefault(s, 0L)));
+        }
+        return sb.toString();
+    }
+
+    private static String line(Map<JobState, Long> c) {
+        StringBuilder sb = new StringBuilder(LocalTime.now().withNano(0).toString());
+        for (JobState s : JobState.values()) {
+            sb.append("  ").append(s.name()).append('=').append(c.getOrDefault(s, 0L));
+        }
+        return sb.toString();
+    }
 
+    private String nodes() {
+        int heartbeat = Integer.parseInt(jobService.config().getOrDefault("heartbeat_sec", 5).toString());
+        List<WorkerRegistry.NodeStats> nodes = registry.nodes(heartbeat);
+        if (nodes.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n%-28s %-8s %-10s %-10s %s%n", "node", "workers", "done", "failed", "done/min"));
+        for (WorkerRegistry.NodeStats n : nodes) {
+            sb.append(String.format("%-28s %-8d %-10d %-10d %.1f%n", n.nodeId, n.workers, n.jobsDone, n.jobsFailed, n.perMinute));
+        }
+        return sb.toString();
+    }
 }
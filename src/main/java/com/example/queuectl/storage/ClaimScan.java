@@ -0,0 +1,16 @@
+package com.example.queuectl.storage;
+
+/**
+ * An index-ordered read of runnable jobs for {@link StorePort#loadClaimCandidates}. A scheduling
+ * policy picks the scans whose top rows feed its choice. For {@code strict} and {@code edf} the top
+ * rows contain the policy's next job; for {@code aging} they hold only the top by priority and by age,
+ * so a job that is neither can be passed over even though its aged priority is higher.
+ */
+public enum ClaimScan {
+    /** Highest priority first, oldest first within a priority. */
+    PRIORITY,
+    /** Oldest first regardless of priority. */
+    OLDEST,
+    /** Earliest deadline first; jobs without a deadline are left out. */
+    DEADLINE
+}
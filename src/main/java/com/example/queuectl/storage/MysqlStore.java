@@ -1,29 +1,57 @@
 package com.example.queuectl.storage;
 
 import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobResult;
 import com.example.queuectl.model.JobState;
+import com.example.queuectl.model.JobUsage;
+import com.example.queuectl.model.Schedule;
+import com.example.queuectl.model.UsageStats;
+import com.example.queuectl.model.WorkerInfo;
+import com.example.queuectl.util.Partitions;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Component  // ✅ Makes this a Spring-managed bean
 public class MysqlStore implements StorePort {
 
     private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    /** Connector/J only streams a result set row by row with this fetch size; used for full-table reads. */
+    private final JdbcTemplate streaming;
 
-    public MysqlStore(JdbcTemplate jdbc) {
+    public MysqlStore(JdbcTemplate jdbc, PlatformTransactionManager txManager) {
         this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.streaming = new JdbcTemplate(jdbc.getDataSource());
+        this.streaming.setFetchSize(Integer.MIN_VALUE);
     }
 
-    private final RowMapper<Job> mapper = (ResultSet rs, int rowNum) -> {
+    @Override
+    public void inTransaction(Runnable work) {
+        tx.executeWithoutResult(status -> work.run());
+    }
+
+    /** Everything but the {@code command} and {@code last_error} text columns; used by the hot paths. */
+    private static final String HEADER_COLUMNS =
+            "id, state, attempts, max_retries, created_at, updated_at, run_at, priority, deadline, last_delay_sec, worker_id, unresolved_parents, " +
+            "cpu_limit_sec, memory_limit_mb, open_files_limit";
+
+    private static Job readHeader(ResultSet rs) throws SQLException {
         Job j = new Job();
         j.id = rs.getString("id");
-        j.command = rs.getString("command");
         j.state = JobState.valueOf(rs.getString("state"));
         j.attempts = rs.getInt("attempts");
         j.maxRetries = rs.getInt("max_retries");
@@ -32,8 +60,29 @@ public class MysqlStore implements StorePort {
         var runAt = rs.getTimestamp("run_at");
         j.runAt = (runAt != null ? runAt.toInstant() : null);
         j.priority = rs.getInt("priority");
-        j.lastError = rs.getString("last_error");
+        var deadline = rs.getTimestamp("deadline");
+        j.deadline = (deadline != null ? deadline.toInstant() : null);
+        j.lastDelaySec = rs.getLong("last_delay_sec");
         j.workerId = rs.getString("worker_id");
+        j.unresolvedParents = rs.getInt("unresolved_parents");
+        j.cpuLimitSec = rs.getObject("cpu_limit_sec", Integer.class);
+        j.memoryLimitMb = rs.getObject("memory_limit_mb", Integer.class);
+        j.openFilesLimit = rs.getObject("open_files_limit", Integer.class);
+        return j;
+    }
+
+    private final RowMapper<Job> headerMapper = (ResultSet rs, int rowNum) -> readHeader(rs);
+
+    private final RowMapper<Job> listMapper = (ResultSet rs, int rowNum) -> {
+        Job j = readHeader(rs);
+        j.command = rs.getString("command");
+        return j;
+    };
+
+    private final RowMapper<Job> mapper = (ResultSet rs, int rowNum) -> {
+        Job j = readHeader(rs);
+        j.command = rs.getString("command");
+        j.lastError = rs.getString("last_error");
         return j;
     };
 
@@ -55,45 +104,457 @@ public class MysqlStore implements StorePort {
     }
 
     @Override
-    public List<Job> loadJobs() {
-        return jdbc.query("SELECT * FROM jobs", mapper);
+    public void streamJobs(Consumer<Job> sink) {
+        streaming.query("SELECT * FROM jobs", rs -> { sink.accept(mapper.mapRow(rs, 0)); });
+    }
+
+    private static final String INSERT_JOB =
+            "INSERT INTO jobs(id, command, state, attempts, max_retries, created_at, updated_at, run_at, priority, deadline, last_delay_sec, last_error, worker_id, unresolved_parents, partition_key, " +
+            "cpu_limit_sec, memory_limit_mb, open_files_limit) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static Object[] jobArgs(Job j) {
+        return new Object[]{
+                j.id, j.command, j.state.name(), j.attempts, j.maxRetries,
+                java.sql.Timestamp.from(j.createdAt),
+                java.sql.Timestamp.from(j.updatedAt),
+                j.runAt == null ? null : java.sql.Timestamp.from(j.runAt),
+                j.priority,
+                j.deadline == null ? null : java.sql.Timestamp.from(j.deadline),
+                j.lastDelaySec, j.lastError, j.workerId, j.unresolvedParents, Partitions.keyOf(j.id),
+                j.cpuLimitSec, j.memoryLimitMb, j.openFilesLimit};
     }
 
     @Override
-    public void saveJobs(List<Job> jobs) {
-        jdbc.update("DELETE FROM jobs");
-        for (Job j : jobs) {
-            jdbc.update("INSERT INTO jobs(id, command, state, attempts, max_retries, created_at, updated_at, run_at, priority, last_error, worker_id) " +
-                            "VALUES(?,?,?,?,?,?,?,?,?,?,?)",
-                    j.id, j.command, j.state.name(), j.attempts, j.maxRetries,
-                    java.sql.Timestamp.from(j.createdAt),
-                    java.sql.Timestamp.from(j.updatedAt),
-                    j.runAt == null ? null : java.sql.Timestamp.from(j.runAt),
-                    j.priority, j.lastError, j.workerId);
+    public boolean insertJob(Job job) {
+        try {
+            jdbc.update(INSERT_JOB, jobArgs(job));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
         }
     }
 
     @Override
-    public List<Job> loadDlq() {
-        return jdbc.query("SELECT * FROM dlq_jobs", (rs, i) -> {
-            Job j = new Job();
-            j.id = rs.getString("id");
-            j.command = rs.getString("command");
-            j.state = JobState.dead;
-            j.attempts = rs.getInt("attempts");
-            j.maxRetries = rs.getInt("max_retries");
-            j.updatedAt = rs.getTimestamp("failed_at").toInstant();
-            j.lastError = rs.getString("last_error");
-            return j;
+    public List<Job> listJobs(JobState state) {
+        String cols = "SELECT " + HEADER_COLUMNS + ", command FROM jobs";
+        return state == null
+                ? jdbc.query(cols, listMapper)
+                : jdbc.query(cols + " WHERE state=?", listMapper, state.name());
+    }
+
+    @Override
+    public Map<JobState, Long> countByState() {
+        Map<JobState, Long> counts = new EnumMap<>(JobState.class);
+        jdbc.query("SELECT state, COUNT(*) AS n FROM jobs GROUP BY state", rs -> {
+            counts.put(JobState.valueOf(rs.getString("state")), rs.getLong("n"));
         });
+        return counts;
+    }
+
+    @Override
+    public String loadCommand(String id) {
+        return jdbc.query("SELECT command FROM jobs WHERE id=?", (rs, i) -> rs.getString(1), id)
+                .stream().findFirst().orElse(null);
+    }
+
+    @Override
+    public void insertJobs(List<Job> jobs) {
+        if (jobs.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(jobs.size());
+        for (Job j : jobs) rows.add(jobArgs(j));
+        try {
+            jdbc.batchUpdate(INSERT_JOB, rows);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Job id already exists", e);
+        }
+    }
+
+    @Override
+    public Optional<Job> findJob(String id) {
+        return jdbc.query("SELECT * FROM jobs WHERE id=?", mapper, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Job> findJobs(Collection<String> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbc.query("SELECT " + HEADER_COLUMNS + " FROM jobs WHERE id IN (" + in + ")", headerMapper, ids.toArray());
+    }
+
+    @Override
+    public List<Job> findJobsForUpdate(Collection<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbc.query("SELECT " + HEADER_COLUMNS + " FROM jobs WHERE id IN (" + in + ") FOR UPDATE", headerMapper, ids.toArray());
+    }
+
+    private static final String UPDATE_JOB =
+            "UPDATE jobs SET state=?, attempts=?, updated_at=?, run_at=?, last_delay_sec=?, last_error=?, worker_id=?, unresolved_parents=? WHERE id=?";
+
+    private static Object[] updateArgs(Job j) {
+        return new Object[]{
+                j.state.name(), j.attempts,
+                java.sql.Timestamp.from(j.updatedAt),
+                j.runAt == null ? null : java.sql.Timestamp.from(j.runAt),
+                j.lastDelaySec, j.lastError, j.workerId, j.unresolvedParents, j.id};
+    }
+
+    @Override
+    public void updateJob(Job j) {
+        jdbc.update(UPDATE_JOB, updateArgs(j));
+    }
+
+    @Override
+    public void updateJobs(List<Job> jobs) {
+        if (jobs.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(jobs.size());
+        for (Job j : jobs) rows.add(updateArgs(j));
+        jdbc.batchUpdate(UPDATE_JOB, rows);
+    }
+
+    @Override
+    public void deleteJobs(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (String id : ids) rows.add(new Object[]{id});
+        jdbc.batchUpdate("DELETE FROM jobs WHERE id=?", rows);
+    }
+
+    @Override
+    public List<Job> loadClaimCandidates(Instant now, int partLo, int partHi, ClaimScan scan, int limit) {
+        // Each order has a (state, <sort columns>, partition_key) index. With state an equality and the
+        // partition range checked inside the index, each branch walks its index in order and stops at
+        // LIMIT; only the union of the two short branches is sorted.
+        String filter;
+        String order;
+        switch (scan) {
+            case OLDEST: filter = ""; order = "ORDER BY created_at"; break;
+            case DEADLINE: filter = "AND deadline IS NOT NULL "; order = "ORDER BY deadline"; break;
+            default: filter = ""; order = "ORDER BY priority DESC, created_at";
+        }
+        String branch = "SELECT " + HEADER_COLUMNS + " FROM jobs WHERE state = ? AND partition_key >= ? AND partition_key < ? " +
+                "AND unresolved_parents = 0 " + filter;
+        return jdbc.query("(" + branch + order + " LIMIT ?) UNION ALL " +
+                        "(" + branch + "AND (run_at IS NULL OR run_at <= ?) " + order + " LIMIT ?) " + order + " LIMIT ?",
+                headerMapper, "pending", partLo, partHi, limit, "failed", partLo, partHi, java.sql.Timestamp.from(now), limit, limit);
+    }
+
+    @Override
+    public boolean tryClaim(String jobId, Instant seenUpdatedAt, String workerId, Instant now) {
+        java.sql.Timestamp ts = java.sql.Timestamp.from(now);
+        return jdbc.update("UPDATE jobs SET state = 'processing', worker_id = ?, updated_at = ? " +
+                        "WHERE id = ? AND unresolved_parents = 0 AND state IN ('pending', 'failed') " +
+                        "AND (state = 'pending' OR run_at IS NULL OR run_at <= ?) AND updated_at = ?",
+                workerId, ts, jobId, ts, java.sql.Timestamp.from(seenUpdatedAt)) == 1;
+    }
+
+    @Override
+    public void saveDependencies(String childId, List<String> parentIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String p : parentIds) rows.add(new Object[]{p, childId});
+        jdbc.batchUpdate("INSERT IGNORE INTO job_deps(parent_id, child_id) VALUES(?,?)", rows);
+    }
+
+    @Override
+    public List<String> loadChildrenForUpdate(String parentId) {
+        return jdbc.queryForList("SELECT child_id FROM job_deps WHERE parent_id=? FOR UPDATE", String.class, parentId);
+    }
+
+    @Override
+    public List<String> loadParents(String childId) {
+        return jdbc.queryForList("SELECT parent_id FROM job_deps WHERE child_id=?", String.class, childId);
+    }
+
+    @Override
+    public void streamDependencies(BiConsumer<String, String> sink) {
+        streaming.query("SELECT parent_id, child_id FROM job_deps", rs -> { sink.accept(rs.getString(1), rs.getString(2)); });
+    }
+
+    @Override
+    public void resolveParents(Collection<String> parentIds) {
+        if (parentIds.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(parentIds.size());
+        for (String id : parentIds) rows.add(new Object[]{id});
+        jdbc.batchUpdate("UPDATE jobs j JOIN job_deps d ON d.child_id = j.id " +
+                "SET j.unresolved_parents = j.unresolved_parents - 1 " +
+                "WHERE d.parent_id=? AND j.unresolved_parents > 0", rows);
+    }
+
+    /**
+     * DLQ rows keep the job's priority, deadline and limits, so a job retried or re-imported from the
+     * DLQ is scheduled and runs as it was enqueued.
+     */
+    private static final String INSERT_DLQ =
+            "INSERT INTO dlq_jobs(id, command, attempts, max_retries, failed_at, last_error, priority, deadline, cpu_limit_sec, memory_limit_mb, open_files_limit) " +
+            "VALUES(?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static Object[] dlqArgs(Job j, Instant failedAt) {
+        return new Object[]{j.id, j.command, j.attempts, j.maxRetries, java.sql.Timestamp.from(failedAt), j.lastError,
+                j.priority, j.deadline == null ? null : java.sql.Timestamp.from(j.deadline),
+                j.cpuLimitSec, j.memoryLimitMb, j.openFilesLimit};
+    }
+
+    private final RowMapper<Job> dlqMapper = (ResultSet rs, int rowNum) -> {
+        Job j = new Job();
+        j.id = rs.getString("id");
+        j.command = rs.getString("command");
+        j.state = JobState.dead;
+        j.attempts = rs.getInt("attempts");
+        j.maxRetries = rs.getInt("max_retries");
+        j.updatedAt = rs.getTimestamp("failed_at").toInstant();
+        j.lastError = rs.getString("last_error");
+        j.priority = rs.getInt("priority");
+        java.sql.Timestamp deadline = rs.getTimestamp("deadline");
+        j.deadline = deadline == null ? null : deadline.toInstant();
+        j.cpuLimitSec = rs.getObject("cpu_limit_sec", Integer.class);
+        j.memoryLimitMb = rs.getObject("memory_limit_mb", Integer.class);
+        j.openFilesLimit = rs.getObject("open_files_limit", Integer.class);
+        return j;
+    };
+
+    @Override
+    public List<Job> loadDlq() {
+        return jdbc.query("SELECT * FROM dlq_jobs", dlqMapper);
     }
 
     @Override
-    public void saveDlq(List<Job> jobs) {
-        jdbc.update("DELETE FROM dlq_jobs");
+    public Optional<Job> findDlq(String id) {
+        return jdbc.query("SELECT * FROM dlq_jobs WHERE id=?", dlqMapper, id).stream().findFirst();
+    }
+
+    @Override
+    public void streamDlq(Consumer<Job> sink) {
+        streaming.query("SELECT * FROM dlq_jobs", rs -> { sink.accept(dlqMapper.mapRow(rs, 0)); });
+    }
+
+    @Override
+    public void insertDlq(List<Job> jobs) {
+        if (jobs.isEmpty()) return;
+        Instant now = Instant.now();
+        List<Object[]> rows = new ArrayList<>(jobs.size());
         for (Job j : jobs) {
-            jdbc.update("INSERT INTO dlq_jobs(id, command, attempts, max_retries, failed_at, last_error) VALUES(?,?,?,?,?,?)",
-                    j.id, j.command, j.attempts, j.maxRetries, java.sql.Timestamp.from(Instant.now()), j.lastError);
+            rows.add(dlqArgs(j, j.updatedAt != null ? j.updatedAt : now));
+        }
+        try {
+            jdbc.batchUpdate(INSERT_DLQ, rows);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Job id already exists", e);
+        }
+    }
+
+    @Override
+    public void moveToDlq(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>();
+        args.add(java.sql.Timestamp.from(Instant.now()));
+        args.addAll(ids);
+        jdbc.update("INSERT INTO dlq_jobs(id, command, attempts, max_retries, failed_at, last_error, priority, deadline, cpu_limit_sec, memory_limit_mb, open_files_limit) " +
+                "SELECT id, command, attempts, max_retries, ?, last_error, priority, deadline, cpu_limit_sec, memory_limit_mb, open_files_limit " +
+                "FROM jobs WHERE id IN (" + in + ")", args.toArray());
+        jdbc.update("DELETE FROM jobs WHERE id IN (" + in + ")", ids.toArray());
+    }
+
+    @Override
+    public long dlqCount() {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM dlq_jobs", Long.class);
+        return n == null ? 0 : n;
+    }
+
+    @Override
+    public void appendEvents(List<JobEvent> events) {
+        if (events.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (JobEvent e : events) {
+            rows.add(new Object[]{e.jobId, e.type.name(),
+                    e.fromState == null ? null : e.fromState.name(), e.toState.name(),
+                    e.workerId, e.detail, java.sql.Timestamp.from(e.at)});
         }
+        jdbc.batchUpdate("INSERT INTO job_events(job_id, type, from_state, to_state, worker_id, detail, at) VALUES(?,?,?,?,?,?,?)", rows);
+    }
+
+    @Override
+    public List<JobEvent> readEvents(long afterSeq, int limit) {
+        return jdbc.query("SELECT * FROM job_events WHERE seq > ? ORDER BY seq LIMIT ?", (rs, i) -> {
+            JobEvent e = new JobEvent();
+            e.seq = rs.getLong("seq");
+            e.jobId = rs.getString("job_id");
+            e.type = JobEventType.valueOf(rs.getString("type"));
+            String from = rs.getString("from_state");
+            e.fromState = from == null ? null : JobState.valueOf(from);
+            e.toState = JobState.valueOf(rs.getString("to_state"));
+            e.workerId = rs.getString("worker_id");
+            e.detail = rs.getString("detail");
+            e.at = rs.getTimestamp("at").toInstant();
+            return e;
+        }, afterSeq, limit);
+    }
+
+    @Override
+    public long latestEventSeq() {
+        Long n = jdbc.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM job_events", Long.class);
+        return n == null ? 0 : n;
+    }
+
+    @Override
+    public void saveResults(List<JobResult> results) {
+        if (results.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (JobResult r : results) {
+            rows.add(new Object[]{r.jobId, r.codec, r.originalBytes, r.data, java.sql.Timestamp.from(r.updatedAt)});
+        }
+        jdbc.batchUpdate("INSERT INTO job_results(job_id, codec, original_bytes, output, updated_at) VALUES(?,?,?,?,?) " +
+                "ON DUPLICATE KEY UPDATE codec=VALUES(codec), original_bytes=VALUES(original_bytes), output=VALUES(output), updated_at=VALUES(updated_at)", rows);
+    }
+
+    @Override
+    public Optional<JobResult> loadResult(String jobId) {
+        return jdbc.query("SELECT * FROM job_results WHERE job_id=?", (rs, i) -> {
+            JobResult r = new JobResult();
+            r.jobId = rs.getString("job_id");
+            r.codec = rs.getString("codec");
+            r.originalBytes = rs.getInt("original_bytes");
+            r.data = rs.getBytes("output");
+            r.updatedAt = rs.getTimestamp("updated_at").toInstant();
+            return r;
+        }, jobId).stream().findFirst();
+    }
+
+    @Override
+    public void saveUsage(List<JobUsage> usage) {
+        if (usage.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(usage.size());
+        for (JobUsage u : usage) {
+            rows.add(new Object[]{u.jobId, u.attempt, u.commandKey, u.exitCode, u.wallMs,
+                    u.cpuUserMs, u.cpuSysMs, u.peakRssKb, u.outputBytes, java.sql.Timestamp.from(u.finishedAt)});
+        }
+        jdbc.batchUpdate("INSERT INTO job_usage(job_id, attempt, command_key, exit_code, wall_ms, cpu_user_ms, cpu_sys_ms, " +
+                "peak_rss_kb, output_bytes, finished_at) VALUES(?,?,?,?,?,?,?,?,?,?)", rows);
+    }
+
+    @Override
+    public List<JobUsage> loadUsage(String jobId) {
+        return jdbc.query("SELECT * FROM job_usage WHERE job_id=? ORDER BY id", (rs, i) -> {
+            JobUsage u = new JobUsage();
+            u.jobId = rs.getString("job_id");
+            u.attempt = rs.getInt("attempt");
+            u.commandKey = rs.getString("command_key");
+            u.exitCode = rs.getInt("exit_code");
+            u.wallMs = rs.getLong("wall_ms");
+            u.cpuUserMs = rs.getObject("cpu_user_ms", Long.class);
+            u.cpuSysMs = rs.getObject("cpu_sys_ms", Long.class);
+            u.peakRssKb = rs.getObject("peak_rss_kb", Long.class);
+            u.outputBytes = rs.getLong("output_bytes");
+            u.finishedAt = rs.getTimestamp("finished_at").toInstant();
+            return u;
+        }, jobId);
+    }
+
+    @Override
+    public List<UsageStats> usageStats(Instant since) {
+        return jdbc.query("SELECT command_key, COUNT(*) AS runs, SUM(exit_code <> 0) AS failures, " +
+                "AVG(wall_ms) AS avg_wall, MAX(wall_ms) AS max_wall, " +
+                "AVG(cpu_user_ms + cpu_sys_ms) AS avg_cpu, SUM(cpu_user_ms + cpu_sys_ms) AS total_cpu, " +
+                "MAX(peak_rss_kb) AS max_rss, AVG(output_bytes) AS avg_output " +
+                "FROM job_usage WHERE finished_at >= ? GROUP BY command_key ORDER BY total_cpu DESC, runs DESC", (rs, i) -> {
+            UsageStats s = new UsageStats();
+            s.commandKey = rs.getString("command_key");
+            s.runs = rs.getLong("runs");
+            s.failures = rs.getLong("failures");
+            s.avgWallMs = rs.getLong("avg_wall");
+            s.maxWallMs = rs.getLong("max_wall");
+            s.avgCpuMs = rs.getLong("avg_cpu");
+            s.totalCpuMs = rs.getLong("total_cpu");
+            s.maxPeakRssKb = rs.getLong("max_rss");
+            s.avgOutputBytes = rs.getLong("avg_output");
+            return s;
+        }, java.sql.Timestamp.from(since));
+    }
+
+    @Override
+    public boolean deleteDlq(String id) {
+        return jdbc.update("DELETE FROM dlq_jobs WHERE id=?", id) > 0;
+    }
+
+    @Override
+    public void registerWorker(WorkerInfo w) {
+        jdbc.update("INSERT INTO workers(worker_id, node_id, started_at, heartbeat_at, jobs_done, jobs_failed) VALUES(?,?,?,?,0,0)",
+                w.workerId, w.nodeId, java.sql.Timestamp.from(w.startedAt), java.sql.Timestamp.from(w.heartbeatAt));
+    }
+
+    @Override
+    public boolean heartbeatWorker(String workerId, Instant now, long doneDelta, long failedDelta) {
+        return jdbc.update("UPDATE workers SET heartbeat_at=?, jobs_done = jobs_done + ?, jobs_failed = jobs_failed + ? WHERE worker_id=?",
+                java.sql.Timestamp.from(now), doneDelta, failedDelta, workerId) > 0;
+    }
+
+    @Override
+    public void deregisterWorker(String workerId) {
+        jdbc.update("DELETE FROM workers WHERE worker_id=?", workerId);
+    }
+
+    @Override
+    public List<WorkerInfo> loadWorkers() {
+        return jdbc.query("SELECT * FROM workers", (rs, i) -> {
+            WorkerInfo w = new WorkerInfo();
+            w.workerId = rs.getString("worker_id");
+            w.nodeId = rs.getString("node_id");
+            w.startedAt = rs.getTimestamp("started_at").toInstant();
+            w.heartbeatAt = rs.getTimestamp("heartbeat_at").toInstant();
+            w.jobsDone = rs.getLong("jobs_done");
+            w.jobsFailed = rs.getLong("jobs_failed");
+            return w;
+        });
+    }
+
+    @Override
+    public void pruneWorkers(Instant before) {
+        jdbc.update("DELETE FROM workers WHERE heartbeat_at < ?", java.sql.Timestamp.from(before));
+    }
+
+    private final RowMapper<Schedule> scheduleMapper = (ResultSet rs, int rowNum) -> {
+        Schedule s = new Schedule();
+        s.id = rs.getString("id");
+        s.command = rs.getString("command");
+        s.cron = rs.getString("cron");
+        int interval = rs.getInt("interval_sec");
+        s.intervalSec = rs.wasNull() ? null : interval;
+        s.priority = rs.getInt("priority");
+        s.maxRetries = rs.getInt("max_retries");
+        s.enabled = rs.getBoolean("enabled");
+        s.createdAt = rs.getTimestamp("created_at").toInstant();
+        return s;
+    };
+
+    @Override
+    public List<Schedule> loadSchedules() {
+        return jdbc.query("SELECT * FROM schedules", scheduleMapper);
+    }
+
+    @Override
+    public void saveSchedule(Schedule s) {
+        jdbc.update("INSERT INTO schedules(id, command, cron, interval_sec, priority, max_retries, enabled, created_at) " +
+                        "VALUES(?,?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE command=VALUES(command), cron=VALUES(cron), " +
+                        "interval_sec=VALUES(interval_sec), priority=VALUES(priority), max_retries=VALUES(max_retries), enabled=VALUES(enabled), " +
+                        "created_at=VALUES(created_at)",
+                s.id, s.command, s.cron, s.intervalSec, s.priority, s.maxRetries, s.enabled,
+                java.sql.Timestamp.from(s.createdAt));
+    }
+
+    @Override
+    public boolean deleteSchedule(String id) {
+        return jdbc.update("DELETE FROM schedules WHERE id=?", id) > 0;
+    }
+
+    @Override
+    public boolean tryAcquireLease(String name, String owner, int ttlSeconds) {
+        Instant now = Instant.now();
+        // assignments run left to right: owner flips first, then expiry is extended only for the holder
+        jdbc.update("INSERT INTO leases(name, owner, expires_at) VALUES(?,?,?) ON DUPLICATE KEY UPDATE " +
+                        "owner = IF(expires_at < ? OR owner = VALUES(owner), VALUES(owner), owner), " +
+                        "expires_at = IF(owner = VALUES(owner), VALUES(expires_at), expires_at)",
+                name, owner, java.sql.Timestamp.from(now.plusSeconds(ttlSeconds)), java.sql.Timestamp.from(now));
+        String holder = jdbc.queryForObject("SELECT owner FROM leases WHERE name=?", String.class, name);
+        return owner.equals(holder);
     }
 }
@@ -2,16 +2,109 @@
 package com.example.queuectl.storage;
 
 import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobResult;
+import com.example.queuectl.model.JobState;
+import com.example.queuectl.model.JobUsage;
+import com.example.queuectl.model.Schedule;
+import com.example.queuectl.model.UsageStats;
+import com.example.queuectl.model.WorkerInfo;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface StorePort {
+    /** Run {@code work} in a single store transaction. */
+    void inTransaction(Runnable work);
+
     Map<String,Object> loadConfig();
     void saveConfig(Map<String,Object> cfg);
 
-    List<Job> loadJobs();
-    void saveJobs(List<Job> jobs);
+    /** Every job row, all columns, through a server-side cursor so the table is never held in memory. */
+    void streamJobs(Consumer<Job> sink);
+    /** Insert a single job; returns false if the id already exists. */
+    boolean insertJob(Job job);
+    /** Batched insert; throws {@link IllegalArgumentException} if any id already exists. */
+    void insertJobs(List<Job> jobs);
+    /** Jobs in {@code state} (all if null) without {@code last_error}. */
+    List<Job> listJobs(JobState state);
+    Map<JobState, Long> countByState();
+    String loadCommand(String id);
+    Optional<Job> findJob(String id);
+    /** Rows for {@code ids} without the {@code command}/{@code last_error} text columns. */
+    List<Job> findJobs(Collection<String> ids);
+    /** As {@link #findJobs}, taking row locks ({@code FOR UPDATE}) until the surrounding transaction ends. */
+    List<Job> findJobsForUpdate(Collection<String> ids);
+    /** Persist the mutable fields of an existing job row. */
+    void updateJob(Job job);
+    /** Batched {@link #updateJob}. */
+    void updateJobs(List<Job> jobs);
+    void deleteJobs(Collection<String> ids);
+
+    /**
+     * Runnable jobs whose partition key is in {@code [partLo, partHi)}, in {@code scan} order, without
+     * locking. Pair with {@link #tryClaim}, which is the actual compare-and-set.
+     */
+    List<Job> loadClaimCandidates(Instant now, int partLo, int partHi, ClaimScan scan, int limit);
+    /**
+     * Atomically move a runnable job to processing for {@code workerId}. False if someone else won, or
+     * if the row changed since it was read as a candidate ({@code updated_at} no longer
+     * {@code seenUpdatedAt}), e.g. it was claimed, failed and pushed back to a later {@code run_at}.
+     */
+    boolean tryClaim(String jobId, Instant seenUpdatedAt, String workerId, Instant now);
+
+    void saveDependencies(String childId, List<String> parentIds);
+    /** Child ids of {@code parentId}, read with row locks so edges committed since the snapshot are seen. */
+    List<String> loadChildrenForUpdate(String parentId);
+    List<String> loadParents(String childId);
+    /** Decrement the unresolved-parent counter of every child of each of {@code parentIds}. */
+    void resolveParents(Collection<String> parentIds);
+    /** Every (parent, child) edge, streamed like {@link #streamJobs}. */
+    void streamDependencies(BiConsumer<String, String> sink);
 
     List<Job> loadDlq();
-    void saveDlq(List<Job> jobs);
+    Optional<Job> findDlq(String id);
+    void streamDlq(Consumer<Job> sink);
+    /** Batched insert, {@code failed_at} taken from {@code updatedAt}; throws {@link IllegalArgumentException} if any id already exists. */
+    void insertDlq(List<Job> jobs);
+    boolean deleteDlq(String id);
+    /** Copy the given job rows into the DLQ and delete them from {@code jobs}, server-side. */
+    void moveToDlq(Collection<String> ids);
+    long dlqCount();
+
+    /** Append to the job event log; callers do this inside the transition's transaction. */
+    void appendEvents(List<JobEvent> events);
+    /** Up to {@code limit} events with {@code seq > afterSeq}, in seq order. */
+    List<JobEvent> readEvents(long afterSeq, int limit);
+    long latestEventSeq();
+
+    void saveResults(List<JobResult> results);
+    Optional<JobResult> loadResult(String jobId);
+
+    void saveUsage(List<JobUsage> usage);
+    List<JobUsage> loadUsage(String jobId);
+    /** {@code job_usage} aggregated by command key since {@code since}, highest total CPU first. */
+    List<UsageStats> usageStats(Instant since);
+
+    void registerWorker(WorkerInfo w);
+    /** Refresh the heartbeat and add to the worker's counters; false if the row is gone (pruned). */
+    boolean heartbeatWorker(String workerId, Instant now, long doneDelta, long failedDelta);
+    void deregisterWorker(String workerId);
+    List<WorkerInfo> loadWorkers();
+    /** Drop registrations whose last heartbeat is older than {@code before}. */
+    void pruneWorkers(Instant before);
+
+    List<Schedule> loadSchedules();
+    void saveSchedule(Schedule s);
+    boolean deleteSchedule(String id);
+
+    /**
+     * Acquire or renew the named lease for {@code owner} until {@code ttlSeconds} from now.
+     * Returns true if {@code owner} holds the lease afterwards.
+     */
+    boolean tryAcquireLease(String name, String owner, int ttlSeconds);
 }
@@ -0,0 +1,48 @@
+package com.example.queuectl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/** Deflate helpers for stored job output. */
+public final class Compression {
+
+    private Compression() {}
+
+    public static byte[] deflate(byte[] raw) {
+        Deflater d = new Deflater(Deflater.BEST_SPEED);
+        try {
+            d.setInput(raw);
+            d.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!d.finished()) {
+                out.write(buf, 0, d.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            d.end();
+        }
+    }
+
+    public static byte[] inflate(byte[] packed, int originalBytes) {
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(packed);
+            byte[] out = new byte[originalBytes];
+            int n = 0;
+            while (n < out.length && !inf.finished()) {
+                int r = inf.inflate(out, n, out.length - n);
+                if (r == 0 && (inf.needsInput() || inf.needsDictionary())) break;
+                n += r;
+            }
+            if (n != out.length) throw new IllegalStateException("Truncated deflate data: " + n + "/" + originalBytes);
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt deflate data", e);
+        } finally {
+            inf.end();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.queuectl.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
@@ -12,4 +13,6 @@ public final class Jsons {
 
     private Jsons() {}
     public static ObjectMapper mapper() { return MAPPER; }
+    /** Single-line writer for line-delimited output. */
+    public static ObjectWriter compact() { return MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT); }
 }
@@ -0,0 +1,22 @@
+package com.example.queuectl.util;
+
+import java.net.InetAddress;
+
+/** Stable identity of this JVM within a cluster: {@code host:pid}. */
+public final class NodeId {
+    private static final String ID = resolve();
+
+    private NodeId() {}
+
+    public static String get() { return ID; }
+
+    private static String resolve() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
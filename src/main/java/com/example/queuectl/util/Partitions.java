@@ -0,0 +1,28 @@
+package com.example.queuectl.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Job ids hash into a fixed key space of {@link #SPACE} partition keys; each live node owns one
+ * contiguous range of it. Stored on the job row so a node's range is an index range scan.
+ */
+public final class Partitions {
+    public static final int SPACE = 1 << 16;
+
+    private Partitions() {}
+
+    public static int keyOf(String jobId) {
+        CRC32 crc = new CRC32();
+        crc.update(jobId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % SPACE);
+    }
+
+    /** Half-open range {@code [lo, hi)} owned by node {@code index} of {@code count}. */
+    public static int[] range(int index, int count) {
+        if (count <= 1) return new int[]{0, SPACE};
+        long lo = (long) SPACE * index / count;
+        long hi = (long) SPACE * (index + 1) / count;
+        return new int[]{(int) lo, (int) hi};
+    }
+}
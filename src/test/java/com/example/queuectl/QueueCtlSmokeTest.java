@@ -4,6 +4,7 @@ package com.example.queuectl;
 import com.example.queuectl.model.Job;
 import com.example.queuectl.service.JobService;
 import com.example.queuectl.service.WorkerService;
+import com.example.queuectl.storage.StorePort;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -15,6 +16,7 @@ public class QueueCtlSmokeTest {
 
     @Autowired JobService jobService;
     @Autowired WorkerService workerService;
+    @Autowired StorePort store;
 
     @Test
     void endToEnd_basicSuccessAndFailure() throws Exception {
@@ -38,4 +40,33 @@ public class QueueCtlSmokeTest {
         var counts = jobService.counts();
         assertTrue(counts.getOrDefault(com.example.queuectl.model.JobState.completed, 0L) >= 1);
     }
+
+    @Test
+    void schedulingAndLimitsSurviveADlqRoundTrip() {
+        String id = "limited-" + System.nanoTime();
+        Job j = new Job(id, "./etl.sh");
+        j.priority = 7;
+        j.deadline = java.time.Instant.parse("2030-01-01T09:00:00Z");
+        j.cpuLimitSec = 120;
+        j.memoryLimitMb = 2048;
+        j.openFilesLimit = 1024;
+        jobService.enqueue(j);
+        store.inTransaction(() -> store.moveToDlq(java.util.List.of(id)));
+
+        Job dead = store.findDlq(id).orElseThrow();
+        assertEquals(120, dead.cpuLimitSec);
+        assertEquals(2048, dead.memoryLimitMb);
+        assertEquals(1024, dead.openFilesLimit);
+        assertEquals(7, dead.priority);
+        assertEquals(j.deadline, dead.deadline);
+
+        assertTrue(jobService.dlqRetry(id));
+        Job back = store.findJob(id).orElseThrow();
+        assertEquals(120, back.cpuLimitSec);
+        assertEquals(2048, back.memoryLimitMb);
+        assertEquals(1024, back.openFilesLimit);
+        assertEquals(7, back.priority);
+        assertEquals(j.deadline, back.deadline);
+        store.deleteJobs(java.util.List.of(id));
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.queuectl.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProtocolTest {
+
+    @Test
+    void pipelinedResponsesDecodeInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Protocol.writeResponse(out, true, "Enqueued job1");
+        Protocol.writeResponse(out, false, "Job id already exists: job1\nsecond line ✓");
+        Protocol.writeResponse(out, true, null);
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        Protocol.Response a = Protocol.readResponse(in);
+        assertTrue(a.ok);
+        assertEquals("Enqueued job1", a.payload);
+        Protocol.Response b = Protocol.readResponse(in);
+        assertFalse(b.ok);
+        assertEquals("Job id already exists: job1\nsecond line ✓", b.payload);
+        Protocol.Response c = Protocol.readResponse(in);
+        assertTrue(c.ok);
+        assertEquals("", c.payload);
+        assertNull(Protocol.readResponse(in));
+    }
+
+    @Test
+    void headerCountsBytesNotChars() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Protocol.writeResponse(out, true, "é");
+        assertEquals("OK 2\né", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void truncatedResponsesAreErrors() {
+        InputStream body = new ByteArrayInputStream("OK 10\nshort".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(EOFException.class, () -> Protocol.readResponse(body));
+        InputStream header = new ByteArrayInputStream("OK 1".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(EOFException.class, () -> Protocol.readResponse(header));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.queuectl.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobResultTest {
+
+    @Test
+    void shortOutputIsStoredRaw() {
+        JobResult r = JobResult.of("j1", "hello\n");
+        assertEquals(JobResult.RAW, r.codec);
+        assertEquals("hello\n", r.output());
+    }
+
+    @Test
+    void largeOutputRoundTripsCompressed() {
+        String out = "line of repetitive build output ✓\n".repeat(500);
+        JobResult r = JobResult.of("j2", out);
+        assertEquals(JobResult.DEFLATE, r.codec);
+        assertTrue(r.data.length < r.originalBytes / 10);
+        assertEquals(out, r.output());
+    }
+
+    @Test
+    void oversizedOutputKeepsTheTail() {
+        String out = "é".repeat(1000) + "FAILED: step 3\n";
+        // the 100-byte cut lands inside an é, so the tail starts one byte later
+        JobResult r = JobResult.of("j3", out, 100);
+        assertEquals("[1916 bytes truncated]\n" + "é".repeat(42) + "FAILED: step 3\n", r.output());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.queuectl.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobUsageTest {
+
+    @Test
+    void commandKeyIsTheProgramAndWhatItRuns() {
+        assertEquals("python3 etl.py", JobUsage.commandKey("python3 /opt/jobs/etl.py --day 2024-01-01"));
+        assertEquals("java app.jar", JobUsage.commandKey("JAVA_OPTS=-Xmx1g /usr/bin/java -Xmx2g -jar app.jar"));
+        assertEquals("backup.sh nightly", JobUsage.commandKey("./backup.sh nightly"));
+        assertEquals("sh", JobUsage.commandKey("sh -c 'sleep 1; echo hi'"));
+        assertEquals("make", JobUsage.commandKey("make -j8"));
+        assertEquals("", JobUsage.commandKey("  "));
+    }
+
+    @Test
+    void idsNumbersAndDataPathsAreNotPartOfTheKey() {
+        assertEquals("thumb.sh", JobUsage.commandKey("./thumb.sh 42"));
+        assertEquals("process", JobUsage.commandKey("process 5f0c2d7e-9b1a-4c3e-8d2f-0a1b2c3d4e5f"));
+        assertEquals("convert", JobUsage.commandKey("convert /data/in/2024-01-01.png out.jpg"));
+        assertEquals("report", JobUsage.commandKey("report 2024-01-01"));
+        assertEquals("node worker.js", JobUsage.commandKey("node ./worker.js 17"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackoffServiceTest {
+
+    @Test
+    void jitteredDelaysStayWithinBounds() {
+        BackoffService full = new BackoffService(BackoffService.Strategy.full_jitter, 100, new Random(7));
+        BackoffService decorrelated = new BackoffService(BackoffService.Strategy.decorrelated, 100, new Random(7));
+        long prev = 0;
+        for (int attempt = 1; attempt < 20; attempt++) {
+            long f = full.delaySeconds(2, attempt, 0);
+            assertTrue(f >= 0 && f <= Math.min(100, 1L << Math.min(attempt, 20)), "full jitter " + f);
+            long d = decorrelated.delaySeconds(2, attempt, prev);
+            assertTrue(d >= 2 && d <= Math.min(100, Math.max(2, prev) * 3), "decorrelated " + d);
+            prev = d;
+        }
+    }
+
+    @Test
+    void exponentialDelayIsCapped() {
+        assertEquals(100, new BackoffService(BackoffService.Strategy.exponential, 100).delaySeconds(2, 30, 0));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class CommandRunnerTest {
+
+    private final CommandRunner runner = new CommandRunner();
+
+    @BeforeEach
+    void unixOnly() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("win"));
+        runner.setKillGraceSeconds(1);
+    }
+
+    @Test
+    void timeoutKillsGrandchildren() throws Exception {
+        // the marker lets us find the grandchildren after the shell is gone
+        String marker = "queuectl-kill-test-" + System.nanoTime();
+        CommandRunner.Result r = runner.run("sh -c 'sleep 300; : " + marker + "' & sleep 300", 1);
+        assertEquals(124, r.exitCode);
+        Thread.sleep(200);
+        List<ProcessHandle> left = ProcessHandle.allProcesses()
+                .filter(h -> h.info().commandLine().map(c -> c.contains(marker)).orElse(false))
+                .collect(Collectors.toList());
+        left.forEach(ProcessHandle::destroyForcibly);
+        assertTrue(left.isEmpty(), "survivors: " + left);
+    }
+
+    @Test
+    void limitsAreAppliedBeforeTheCommand() {
+        CommandRunner.Result r = runner.run("ulimit -n", 10, new CommandRunner.Limits(null, null, 64));
+        assertEquals(0, r.exitCode);
+        assertEquals("64", r.output.trim());
+    }
+
+    @Test
+    void usageCoversTheWholeTree() {
+        assumeTrue(ProcessTreeSampler.available());
+        // the CPU is burnt by a grandchild, not by the shell we started
+        CommandRunner.Result r = runner.run("sh -c 'i=0; while [ $i -lt 300000 ]; do i=$((i+1)); done'; echo done", 30);
+        assertEquals(0, r.exitCode);
+        assertEquals("sh", r.usage.commandKey);
+        assertEquals(5, r.usage.outputBytes);
+        assertTrue(r.usage.cpuUserMs + r.usage.cpuSysMs > 0, "cpu " + r.usage.cpuUserMs);
+        assertTrue(r.usage.peakRssKb > 0);
+        assertTrue(r.usage.wallMs >= r.usage.cpuUserMs / 2);
+    }
+
+    @Test
+    void outputIsCappedWhileReading() {
+        runner.setMaxOutputBytes(1128); // 500 bytes of head and 500 of tail
+        CommandRunner.Result r = runner.run("echo first; i=0; while [ $i -lt 20000 ]; do echo line$i; i=$((i+1)); done; echo last", 30);
+        assertEquals(0, r.exitCode);
+        assertTrue(r.output.startsWith("first\nline0\n"), r.output.substring(0, 40));
+        assertTrue(r.output.endsWith("line19999\nlast\n"));
+        assertTrue(r.output.matches("(?s).*\n\\[\\d+ bytes truncated]\n.*"));
+        assertTrue(r.output.length() < 1128);
+        assertTrue(r.usage.outputBytes > 100_000);
+    }
+
+    @Test
+    void captureKeepsShortOutputWhole() {
+        CommandRunner.OutputCapture c = new CommandRunner.OutputCapture(128 + 8);
+        byte[] b = "abcdefgh".getBytes();
+        c.write(b, 0, b.length);
+        assertEquals("abcdefgh", c.text());
+        c.write(b, 0, 3);
+        assertEquals("abcd\n[3 bytes truncated]\nhabc", c.text());
+    }
+
+    @Test
+    void captureDoesNotSplitCharacters() {
+        CommandRunner.OutputCapture c = new CommandRunner.OutputCapture(128 + 6);
+        byte[] b = "ééééé".getBytes(java.nio.charset.StandardCharsets.UTF_8); // 10 bytes
+        c.write(b, 0, b.length);
+        // head "éé" and tail "é" after the split halves; 4 bytes dropped plus 1 partial on each side
+        assertEquals("é\n[6 bytes truncated]\né", c.text());
+    }
+
+    @Test
+    void statLineParsingSkipsTheCommandName() {
+        String stat = "4242 (my (odd) cmd) S 1 4242 4242 0 -1 4194560 100 0 0 0 37 5 12 3 20 0 1 0 100 1000 50";
+        assertArrayEquals(new long[]{49, 8}, ProcessTreeSampler.parseStat(stat));
+        assertArrayEquals(new long[]{2048, 4096},
+                ProcessTreeSampler.parseStatus(List.of("Name:\tx", "VmHWM:\t    4096 kB", "VmRSS:\t    2048 kB")));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DaemonServiceTest {
+
+    @Test
+    void socketDirectoryMustBePrivate(@TempDir Path tmp) throws Exception {
+        assumeTrue(tmp.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path fresh = tmp.resolve("a/b");
+        assertNull(DaemonService.createPrivateDirectory(fresh));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(fresh)));
+
+        Path open = Files.createDirectory(tmp.resolve("open"));
+        Files.setPosixFilePermissions(open, PosixFilePermissions.fromString("rwxr-xr-x"));
+        assertEquals("mode rwxr-xr-x, expected rwx------", DaemonService.createPrivateDirectory(open));
+
+        Path link = Files.createSymbolicLink(tmp.resolve("link"), fresh);
+        assertEquals("not a directory", DaemonService.createPrivateDirectory(link));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventCursorTest {
+
+    private final TreeMap<Long, JobEvent> log = new TreeMap<>();
+    private final EventCursor cursor = new EventCursor(
+            (after, limit) -> log.tailMap(after, false).values().stream().limit(limit).toList(), 0);
+
+    private void commit(long seq) {
+        JobEvent e = new JobEvent("job-" + seq, JobEventType.enqueued, null, JobState.pending, Instant.now());
+        e.seq = seq;
+        log.put(seq, e);
+    }
+
+    private List<Long> read(int limit) {
+        return cursor.read(limit).stream().map(e -> e.seq).toList();
+    }
+
+    @Test
+    void lateCommitBelowTheCursorIsReadOnce() {
+        commit(1);
+        commit(3);
+        assertEquals(List.of(1L, 3L), read(100));
+        commit(2);
+        commit(4);
+        assertEquals(List.of(2L, 4L), read(100));
+        assertEquals(List.of(), read(100));
+        assertEquals(4, cursor.cursor());
+    }
+
+    @Test
+    void rereadPagesPastAFullWindowOfSeenRows() {
+        commit(1);
+        for (long s = 3; s <= 12; s++) commit(s);
+        assertEquals(11, read(100).size());
+        commit(13);
+        // the hole at 2 makes every read start below ten already-seen rows; a page of 4 must still get to 13
+        List<Long> next = read(4);
+        assertEquals(List.of(13L), next);
+        assertFalse(cursor.more());
+    }
+
+    @Test
+    void holesOlderThanTheWindowAreGivenUp() {
+        commit(1);
+        commit(EventCursor.REREAD_WINDOW + 10);
+        read(100);
+        commit(2);
+        assertEquals(List.of(), read(100));
+        commit(EventCursor.REREAD_WINDOW + 5);
+        assertEquals(List.of((long) EventCursor.REREAD_WINDOW + 5), read(100));
+    }
+
+    @Test
+    void limitMustBePositive() {
+        commit(1);
+        assertThrows(IllegalArgumentException.class, () -> cursor.read(0));
+        assertEquals(0, cursor.cursor());
+        assertEquals(List.of(1L), read(1));
+    }
+}
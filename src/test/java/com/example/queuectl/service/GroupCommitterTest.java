@@ -0,0 +1,93 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitterTest {
+
+    @Test
+    void concurrentTransitionsShareBatches() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger applied = new AtomicInteger();
+        GroupCommitter gc = new GroupCommitter(b -> {
+            batches.incrementAndGet();
+            applied.addAndGet(b.size());
+        }, 50, 1000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> fs = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String id = "j" + i;
+            fs.add(pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition(id, "w-1", true, 0, null, null))));
+        }
+        for (Future<?> f : fs) f.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        gc.close();
+
+        assertEquals(16, applied.get());
+        assertTrue(batches.get() < 16, "expected transitions to be grouped, got " + batches.get() + " batches");
+    }
+
+    @Test
+    void badTransitionOnlyFailsItself() throws Exception {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        GroupCommitter gc = new GroupCommitter(b -> {
+            if (b.stream().anyMatch(t -> t.jobId.equals("poison"))) throw new IllegalStateException("row too large");
+            b.forEach(t -> applied.add(t.jobId));
+        }, 100, 1000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Future<?> a = pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition("a", "w-1", true, 0, null, null)));
+        Future<?> p = pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition("poison", "w-1", true, 0, null, null)));
+        Future<?> b = pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition("b", "w-1", true, 0, null, null)));
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> p.get(5, TimeUnit.SECONDS));
+        assertEquals("row too large", e.getCause().getCause().getMessage());
+        pool.shutdown();
+        gc.close();
+        assertTrue(applied.containsAll(List.of("a", "b")));
+    }
+
+    @Test
+    void failedBatchPropagatesToWaiters() {
+        GroupCommitter gc = new GroupCommitter(b -> { throw new IllegalStateException("db down"); }, 1, 10);
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> gc.submitAndWait(new GroupCommitter.Transition("x", "w-1", false, 2, "boom", null)));
+        assertEquals("db down", e.getCause().getMessage());
+        gc.close();
+    }
+
+    @Test
+    void interruptedFlusherHandsWorkBackToCallers() throws Exception {
+        Map<String, String> appliedOn = new ConcurrentHashMap<>();
+        CountDownLatch aStarted = new CountDownLatch(1);
+        GroupCommitter gc = new GroupCommitter(b -> {
+            for (GroupCommitter.Transition t : b) appliedOn.put(t.jobId, Thread.currentThread().getName());
+            if (b.get(0).jobId.equals("a")) {
+                Thread.currentThread().interrupt();
+                aStarted.countDown();
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                while (System.nanoTime() < until) Thread.onSpinWait(); // give "b" time to queue up
+            }
+        }, 1, 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> a = pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition("a", "w-1", true, 0, null, null)));
+        assertTrue(aStarted.await(5, TimeUnit.SECONDS));
+        Future<?> b = pool.submit(() -> gc.submitAndWait(new GroupCommitter.Transition("b", "w-2", true, 0, null, null)));
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        gc.close();
+
+        assertEquals("queuectl-group-commit", appliedOn.get("a"));
+        assertNotEquals("queuectl-group-commit", appliedOn.get("b"));
+    }
+}
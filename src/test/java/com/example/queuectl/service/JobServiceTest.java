@@ -0,0 +1,191 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+import com.example.queuectl.model.JobUsage;
+import com.example.queuectl.storage.StorePort;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobServiceTest {
+
+    /** The slice of {@link StorePort} that enqueue and complete/fail use, backed by maps; anything else throws. */
+    static final class FakeStore {
+        final Map<String, Object> config = new HashMap<>(Map.of("max_retries", 1));
+        final Map<String, Job> jobs = new LinkedHashMap<>();
+        final Map<String, Job> dlq = new LinkedHashMap<>();
+        final List<String[]> deps = new ArrayList<>();
+        final List<JobEvent> events = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        StorePort port() {
+            return (StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class}, (proxy, m, a) -> {
+                switch (m.getName()) {
+                    case "inTransaction": ((Runnable) a[0]).run(); return null;
+                    case "loadConfig": return new HashMap<>(config);
+                    case "findJobsForUpdate": {
+                        List<Job> out = new ArrayList<>();
+                        for (String id : (Collection<String>) a[0]) if (jobs.containsKey(id)) out.add(jobs.get(id));
+                        return out;
+                    }
+                    case "findDlq": return Optional.ofNullable(dlq.get((String) a[0]));
+                    case "insertJob": return jobs.putIfAbsent(((Job) a[0]).id, (Job) a[0]) == null;
+                    case "insertDlq": for (Job j : (List<Job>) a[0]) dlq.put(j.id, j); return null;
+                    case "saveDependencies":
+                        for (String parent : (List<String>) a[1]) deps.add(new String[]{parent, (String) a[0]});
+                        return null;
+                    case "loadChildrenForUpdate": {
+                        List<String> out = new ArrayList<>();
+                        for (String[] d : deps) if (d[0].equals(a[0])) out.add(d[1]);
+                        return out;
+                    }
+                    case "resolveParents":
+                        for (String parent : (Collection<String>) a[0]) {
+                            for (String[] d : deps) {
+                                Job child = jobs.get(d[1]);
+                                if (d[0].equals(parent) && child != null && child.unresolvedParents > 0) child.unresolvedParents--;
+                            }
+                        }
+                        return null;
+                    case "moveToDlq": for (String id : (List<String>) a[0]) dlq.put(id, jobs.remove(id)); return null;
+                    case "updateJobs": case "saveResults": case "saveUsage": return null;
+                    case "appendEvents": events.addAll((List<JobEvent>) a[0]); return null;
+                    default: throw new UnsupportedOperationException(m.getName());
+                }
+            });
+        }
+
+        /** What a successful claim leaves behind. */
+        void claim(String id, String workerId) {
+            Job j = jobs.get(id);
+            j.state = JobState.processing;
+            j.workerId = workerId;
+        }
+
+        long count(JobEventType type) {
+            return events.stream().filter(e -> e.type == type).count();
+        }
+    }
+
+    private static Job job(String id, String... parents) {
+        Job j = new Job(id, "echo " + id);
+        if (parents.length > 0) j.parents = List.of(parents);
+        return j;
+    }
+
+    @Test
+    void childWaitsForEveryParent() {
+        FakeStore fake = new FakeStore();
+        JobService svc = new JobService(fake.port());
+        svc.enqueue(job("a"));
+        svc.enqueue(job("b"));
+        svc.enqueue(job("c", "a", "b"));
+        assertEquals(2, fake.jobs.get("c").unresolvedParents);
+
+        fake.claim("a", "w-1");
+        svc.complete("a", "w-1");
+        assertEquals(1, fake.jobs.get("c").unresolvedParents);
+
+        fake.claim("b", "w-2");
+        svc.complete("b", "w-2");
+        assertEquals(0, fake.jobs.get("c").unresolvedParents);
+
+        // a parent that already completed does not count
+        svc.enqueue(job("d", "a"));
+        assertEquals(0, fake.jobs.get("d").unresolvedParents);
+        assertThrows(IllegalArgumentException.class, () -> svc.enqueue(job("e", "nope")));
+    }
+
+    @Test
+    void deadParentTakesItsDescendantsToTheDlq() {
+        FakeStore fake = new FakeStore();
+        JobService svc = new JobService(fake.port());
+        svc.enqueue(job("a"));
+        svc.enqueue(job("b", "a"));
+        svc.enqueue(job("c", "b"));
+        svc.enqueue(job("x"));
+
+        fake.claim("a", "w-1");
+        svc.fail("a", "w-1", 2, "exit=1");
+
+        assertEquals(Set.of("a", "b", "c"), fake.dlq.keySet());
+        assertEquals(Set.of("x"), fake.jobs.keySet());
+        assertEquals("dependency failed: a", fake.dlq.get("b").lastError);
+        assertEquals("dependency failed: b", fake.dlq.get("c").lastError);
+        assertEquals(3, fake.count(JobEventType.dead));
+
+        // enqueued after the parent died: straight to the DLQ
+        svc.enqueue(job("d", "a"));
+        assertEquals(JobState.dead, fake.dlq.get("d").state);
+        assertFalse(fake.jobs.containsKey("d"));
+    }
+
+    @Test
+    void staleTransitionsAreIgnored() {
+        FakeStore fake = new FakeStore();
+        JobService svc = new JobService(fake.port());
+        svc.enqueue(job("a"));
+        svc.enqueue(job("b", "a"));
+        svc.enqueue(job("c", "a"));
+        fake.claim("a", "w-1");
+
+        svc.complete("a", "w-2");
+        assertEquals(JobState.processing, fake.jobs.get("a").state);
+
+        svc.complete("a", "w-1");
+        fake.jobs.get("b").unresolvedParents = 1; // as if b had a second, unfinished parent
+        svc.complete("a", "w-1");
+        svc.fail("a", "w-1", 2, "exit=1");
+
+        assertEquals(JobState.completed, fake.jobs.get("a").state);
+        assertEquals(1, fake.jobs.get("b").unresolvedParents);
+        assertEquals(1, fake.count(JobEventType.completed));
+        assertEquals(0, fake.count(JobEventType.failed) + fake.count(JobEventType.dead));
+    }
+
+    @Test
+    void requeueReturnsAnUnrecordedRun() {
+        FakeStore fake = new FakeStore();
+        JobService svc = new JobService(fake.port());
+        svc.enqueue(job("a"));
+        fake.claim("a", "w-1");
+
+        assertFalse(svc.requeue("a", "w-2", "outcome not recorded: db down"));
+        assertTrue(svc.requeue("a", "w-1", "outcome not recorded: db down"));
+
+        Job a = fake.jobs.get("a");
+        assertEquals(JobState.pending, a.state);
+        assertNull(a.workerId);
+        assertEquals(0, a.attempts);
+        assertEquals(1, fake.count(JobEventType.retried));
+    }
+
+    @Test
+    void rolledBackTransitionLeavesItsInputAlone() {
+        FakeStore fake = new FakeStore();
+        StorePort ok = fake.port();
+        StorePort rollsBack = (StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class}, (proxy, m, a) -> {
+            if (m.getName().equals("saveUsage")) throw new IllegalStateException("deadlock");
+            try {
+                return m.invoke(ok, a);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        JobService svc = new JobService(rollsBack);
+        svc.enqueue(job("a"));
+        fake.claim("a", "w-1");
+        JobUsage usage = new JobUsage();
+
+        assertThrows(IllegalStateException.class, () -> svc.complete("a", "w-1", null, usage));
+        assertNull(usage.jobId);
+        assertEquals(0, usage.attempt);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobWaitersTest {
+
+    private final List<JobEvent> log = new CopyOnWriteArrayList<>();
+    private final Map<String, Job> rows = new ConcurrentHashMap<>();
+    private final JobWaiters waiters = new JobWaiters(
+            () -> log.isEmpty() ? 0 : log.get(log.size() - 1).seq,
+            (after, limit) -> log.stream().filter(e -> e.seq > after).limit(limit).toList(),
+            id -> Optional.ofNullable(rows.get(id)));
+
+    private static Job job(String id, JobState state) {
+        Job j = new Job(id, "true");
+        j.state = state;
+        return j;
+    }
+
+    @Test
+    void localCompletionIsDeliveredDirectly() throws Exception {
+        CompletableFuture<Job> f = waiters.register("a");
+        waiters.fire(List.of(job("b", JobState.completed)));
+        assertFalse(f.isDone());
+        waiters.fire(List.of(job("a", JobState.completed)));
+        assertEquals(JobState.completed, f.get(1, TimeUnit.SECONDS).state);
+        assertEquals(0, waiters.size());
+    }
+
+    @Test
+    void completionOnAnotherNodeIsFoundInTheEventLog() throws Exception {
+        CompletableFuture<Job> f = waiters.register("remote");
+        rows.put("remote", job("remote", JobState.dead));
+        JobEvent e = new JobEvent("remote", JobEventType.dead, JobState.processing, JobState.dead, Instant.now());
+        e.seq = 1;
+        log.add(e);
+        assertEquals(JobState.dead, f.get(5, TimeUnit.SECONDS).state);
+    }
+
+    @Test
+    void timedOutWaitersAreDropped() {
+        CompletableFuture<Job> f = waiters.register("slow").orTimeout(50, TimeUnit.MILLISECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(0, waiters.size());
+    }
+
+    @Test
+    void closeFailsWhatIsStillWaiting() {
+        CompletableFuture<Job> f = waiters.register("a");
+        waiters.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(waiters.register("b").isCompletedExceptionally());
+        waiters.fire(List.of(job("a", JobState.completed))); // nothing left to deliver to, and no thread needed
+        assertEquals(0, waiters.size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryBudgetTest {
+
+    @Test
+    void overdrawnRetriesAreSpacedByTheFloorRate() {
+        AtomicLong clock = new AtomicLong();
+        RetryBudget budget = new RetryBudget(0.1, 2, clock::get);
+        // banked: 2 * 10 + 0.1 * 100 = 30 tokens
+        for (int i = 0; i < 30; i++) assertEquals(0, budget.reserve());
+        assertEquals(1, budget.reserve());
+        assertEquals(1, budget.reserve());
+        assertEquals(2, budget.reserve());
+
+        clock.addAndGet(5_000_000_000L); // 5s at 2/s repays the debt of 3 and banks 7
+        for (int i = 0; i < 7; i++) assertEquals(0, budget.reserve());
+        assertEquals(1, budget.reserve());
+    }
+
+    @Test
+    void restoreUndoesARolledBackBatch() {
+        AtomicLong clock = new AtomicLong();
+        RetryBudget budget = new RetryBudget(0, 1, clock::get);
+        for (int i = 0; i < 10; i++) budget.reserve();
+        RetryBudget.Checkpoint before = budget.checkpoint();
+        assertEquals(1, budget.reserve());
+        assertEquals(2, budget.reserve());
+        budget.restore(before);
+        assertEquals(1, budget.reserve());
+    }
+
+    @Test
+    void firstAttemptsEarnRetries() {
+        RetryBudget budget = new RetryBudget(0.5, 0.001, () -> 0L);
+        while (budget.reserve() == 0) { }
+        assertTrue(budget.reserve() > 0); // two retries overdrawn
+        for (int i = 0; i < 6; i++) budget.deposit(); // six first attempts earn three retries
+        assertEquals(0, budget.reserve());
+        assertTrue(budget.reserve() > 0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchedulingPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private static Job job(String id, int priority, long ageSec, Instant deadline) {
+        Job j = new Job(id, "true");
+        j.priority = priority;
+        j.createdAt = NOW.minusSeconds(ageSec);
+        j.deadline = deadline;
+        return j;
+    }
+
+    private static List<String> order(SchedulingPolicy p, Job... jobs) {
+        List<Job> list = new ArrayList<>(List.of(jobs));
+        list.sort(p.order(NOW));
+        return list.stream().map(j -> j.id).toList();
+    }
+
+    @Test
+    void strictPriorityLetsOldLowPriorityJobsWait() {
+        SchedulingPolicy p = SchedulingPolicy.of("strict", 60);
+        assertEquals(List.of("hi", "lo"), order(p, job("lo", 0, 3600, null), job("hi", 5, 1, null)));
+    }
+
+    @Test
+    void agingPromotesJobsThatWaitedLongEnough() {
+        SchedulingPolicy p = SchedulingPolicy.of("aging", 60);
+        // 5 priority levels = 300s of waiting
+        assertEquals(List.of("hi", "lo"), order(p, job("lo", 0, 240, null), job("hi", 5, 1, null)));
+        assertEquals(List.of("lo", "hi"), order(p, job("lo", 0, 360, null), job("hi", 5, 1, null)));
+    }
+
+    @Test
+    void edfOrdersByDeadlineThenPriority() {
+        SchedulingPolicy p = SchedulingPolicy.of("edf", 60);
+        assertEquals(List.of("soon", "later", "hi", "lo"), order(p,
+                job("lo", 0, 10, null),
+                job("later", 0, 10, NOW.plusSeconds(600)),
+                job("hi", 9, 10, null),
+                job("soon", 0, 1, NOW.plusSeconds(60))));
+    }
+
+    @Test
+    void unknownPolicyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.of("fifo", 60));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.model.JobEvent;
+import com.example.queuectl.model.JobEventType;
+import com.example.queuectl.model.JobState;
+import com.example.queuectl.storage.StorePort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotServiceTest {
+
+    /** The slice of {@link StorePort} that snapshots use, backed by maps; anything else throws. */
+    static final class FakeStore {
+        final Map<String, Object> config = new HashMap<>();
+        final Map<String, Job> jobs = new LinkedHashMap<>();
+        final Map<String, Job> dlq = new LinkedHashMap<>();
+        final List<String[]> deps = new ArrayList<>();
+        final List<JobEvent> events = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        StorePort port() {
+            return (StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class}, (proxy, m, a) -> {
+                switch (m.getName()) {
+                    case "inTransaction": ((Runnable) a[0]).run(); return null;
+                    case "loadConfig": return new HashMap<>(config);
+                    case "saveConfig": config.putAll((Map<String, Object>) a[0]); return null;
+                    case "streamJobs": jobs.values().forEach((Consumer<Job>) a[0]); return null;
+                    case "streamDlq": dlq.values().forEach((Consumer<Job>) a[0]); return null;
+                    case "streamDependencies": deps.forEach(d -> ((BiConsumer<String, String>) a[0]).accept(d[0], d[1])); return null;
+                    case "insertJob": return jobs.putIfAbsent(((Job) a[0]).id, (Job) a[0]) == null;
+                    case "insertJobs": insertAll(jobs, (List<Job>) a[0]); return null;
+                    case "insertDlq": insertAll(dlq, (List<Job>) a[0]); return null;
+                    case "saveDependencies":
+                        for (String parent : (List<String>) a[1]) deps.add(new String[]{parent, (String) a[0]});
+                        return null;
+                    case "appendEvents": events.addAll((List<JobEvent>) a[0]); return null;
+                    default: throw new UnsupportedOperationException(m.getName());
+                }
+            });
+        }
+
+        private static void insertAll(Map<String, Job> table, List<Job> rows) {
+            for (Job j : rows) if (table.containsKey(j.id)) throw new IllegalArgumentException("Job id already exists: " + j.id);
+            for (Job j : rows) table.put(j.id, j);
+        }
+    }
+
+    private static Job job(String id, JobState state) {
+        Job j = new Job(id, "echo " + id);
+        j.state = state;
+        return j;
+    }
+
+    @Test
+    void exportThenImportRoundTrips(@TempDir Path dir) throws Exception {
+        FakeStore src = new FakeStore();
+        src.config.put("max_retries", 5);
+        src.jobs.put("a", job("a", JobState.completed));
+        Job b = job("b", JobState.processing);
+        b.workerId = "w-1";
+        b.priority = 7;
+        src.jobs.put("b", b);
+        src.deps.add(new String[]{"a", "b"});
+        src.dlq.put("x", job("x", JobState.dead));
+
+        Path file = dir.resolve("snap.jsonl.gz");
+        assertTrue(new SnapshotService(src.port()).exportTo(file).startsWith("Exported 2 job(s) and 1 DLQ job(s)"));
+        assertFalse(Files.exists(dir.resolve("snap.jsonl.gz.tmp")));
+
+        FakeStore dst = new FakeStore();
+        assertTrue(new SnapshotService(dst.port()).importFrom(file).startsWith("Imported 2 job(s) and 1 DLQ job(s)"));
+        assertEquals(5, ((Number) dst.config.get("max_retries")).intValue());
+        assertEquals(List.of("a", "b"), new ArrayList<>(dst.jobs.keySet()));
+        assertEquals(JobState.pending, dst.jobs.get("b").state);
+        assertNull(dst.jobs.get("b").workerId);
+        assertEquals(7, dst.jobs.get("b").priority);
+        assertArrayEquals(new String[]{"a", "b"}, dst.deps.get(0));
+        assertEquals(Set.of("x"), dst.dlq.keySet());
+
+        assertEquals(3, dst.events.size());
+        assertTrue(dst.events.stream().allMatch(e -> e.type == JobEventType.enqueued));
+        assertEquals(JobState.dead, dst.events.get(2).toState);
+    }
+
+    @Test
+    void existingIdsAreKeptAndCounted(@TempDir Path dir) throws Exception {
+        FakeStore src = new FakeStore();
+        src.jobs.put("a", job("a", JobState.pending));
+        src.jobs.put("b", job("b", JobState.pending));
+        src.dlq.put("x", job("x", JobState.dead));
+        Path file = dir.resolve("snap.jsonl.gz");
+        new SnapshotService(src.port()).exportTo(file);
+
+        FakeStore dst = new FakeStore();
+        Job current = job("a", JobState.failed);
+        dst.jobs.put("a", current);
+        dst.dlq.put("x", job("x", JobState.dead));
+        String msg = new SnapshotService(dst.port()).importFrom(file);
+
+        assertEquals("Imported 1 job(s) and 0 DLQ job(s) from " + file + " (2 existing id(s) skipped)", msg);
+        assertSame(current, dst.jobs.get("a"));
+        assertEquals(List.of("b"), dst.events.stream().map(e -> e.jobId).toList());
+    }
+
+    @Test
+    void failedExportLeavesNoTempFile(@TempDir Path dir) {
+        FakeStore src = new FakeStore();
+        src.jobs.put("a", job("a", JobState.pending));
+        StorePort broken = (StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class}, (proxy, m, a) -> {
+            if (m.getName().equals("streamDependencies")) throw new IllegalStateException("connection lost");
+            try {
+                return m.invoke(src.port(), a);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        Path file = dir.resolve("snap.jsonl.gz");
+        assertThrows(IllegalStateException.class, () -> new SnapshotService(broken).exportTo(file));
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(dir.resolve("snap.jsonl.gz.tmp")));
+    }
+}
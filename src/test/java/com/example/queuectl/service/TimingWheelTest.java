@@ -0,0 +1,37 @@
+package com.example.queuectl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    @Test
+    void entriesExpireOnTheirTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(8, 3, 1000);
+        long[] dues = {1001, 1007, 1008, 1009, 1063, 1064, 1065, 1511, 1512, 5000};
+        for (long d : dues) wheel.add(d, d);
+        assertEquals(dues.length, wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        while (wheel.currentTick() < 5000) {
+            long t = wheel.currentTick() + 1;
+            for (Long due : wheel.tick()) {
+                assertEquals(t, due.longValue(), "fired on wrong tick");
+                fired.add(due);
+            }
+        }
+        assertEquals(dues.length, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDueEntriesFireOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 2, 10);
+        wheel.add("late", 3);
+        assertEquals(List.of("late"), wheel.tick());
+    }
+}
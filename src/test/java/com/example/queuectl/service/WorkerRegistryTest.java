@@ -0,0 +1,113 @@
+package com.example.queuectl.service;
+
+import com.example.queuectl.model.WorkerInfo;
+import com.example.queuectl.storage.StorePort;
+import com.example.queuectl.util.Partitions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkerRegistryTest {
+
+    /** The {@code workers} table as a map; anything else throws. */
+    static final class FakeStore {
+        final Map<String, WorkerInfo> workers = new LinkedHashMap<>();
+        final List<Instant> pruned = new ArrayList<>();
+
+        StorePort port() {
+            return (StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class}, (proxy, m, a) -> {
+                switch (m.getName()) {
+                    case "registerWorker": workers.put(((WorkerInfo) a[0]).workerId, (WorkerInfo) a[0]); return null;
+                    case "heartbeatWorker": {
+                        WorkerInfo w = workers.get((String) a[0]);
+                        if (w == null) return false;
+                        w.heartbeatAt = (Instant) a[1];
+                        w.jobsDone += (Long) a[2];
+                        w.jobsFailed += (Long) a[3];
+                        return true;
+                    }
+                    case "deregisterWorker": workers.remove((String) a[0]); return null;
+                    case "loadWorkers": return new ArrayList<>(workers.values());
+                    case "pruneWorkers":
+                        pruned.add((Instant) a[0]);
+                        workers.values().removeIf(w -> w.heartbeatAt.isBefore((Instant) a[0]));
+                        return null;
+                    default: throw new UnsupportedOperationException(m.getName());
+                }
+            });
+        }
+    }
+
+    private static WorkerInfo worker(String node, Instant heartbeatAt) {
+        WorkerInfo w = new WorkerInfo();
+        w.workerId = node + "-w";
+        w.nodeId = node;
+        w.startedAt = heartbeatAt;
+        w.heartbeatAt = heartbeatAt;
+        return w;
+    }
+
+    @Test
+    void nodesAreLiveForThreeHeartbeats() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        List<WorkerInfo> rows = List.of(
+                worker("c", now.minusSeconds(1)),
+                worker("a", now.minusSeconds(14)),
+                worker("b", now.minusSeconds(15)),
+                worker("d", now.minusSeconds(60)));
+        assertEquals(List.of("a", "c"), WorkerRegistry.liveNodes(rows, now, 5));
+    }
+
+    @Test
+    void refreshPrunesSilentRowsAndTakesASlice() {
+        FakeStore fake = new FakeStore();
+        WorkerRegistry registry = new WorkerRegistry(fake.port());
+        Instant now = Instant.now();
+        fake.workers.put("stale", worker("zz-gone", now.minus(WorkerRegistry.PRUNE_AFTER).minusSeconds(5)));
+        fake.workers.put("other", worker("\u0000-first", now));
+        registry.register("w-1");
+
+        registry.refresh(5);
+
+        Instant before = fake.pruned.get(0);
+        assertTrue(Duration.between(before, now.minus(WorkerRegistry.PRUNE_AFTER)).abs().getSeconds() < 5);
+        assertFalse(fake.workers.containsKey("stale"));
+        assertArrayEquals(Partitions.range(1, 2), registry.partition());
+    }
+
+    @Test
+    void heartbeatAfterPruneRegistersAgain() {
+        FakeStore fake = new FakeStore();
+        WorkerRegistry registry = new WorkerRegistry(fake.port());
+        registry.register("w-1");
+        Instant startedAt = fake.workers.get("w-1").startedAt;
+        registry.recordDone("w-1");
+        registry.recordDone("w-1");
+        fake.workers.clear();
+
+        registry.heartbeat("w-1", 3600);
+
+        WorkerInfo back = fake.workers.get("w-1");
+        assertNotNull(back);
+        assertEquals(registry.nodeId(), back.nodeId);
+        assertEquals(startedAt, back.startedAt);
+        assertEquals(2, back.jobsDone);
+    }
+
+    @Test
+    void deregisteredWorkerStaysGone() {
+        FakeStore fake = new FakeStore();
+        WorkerRegistry registry = new WorkerRegistry(fake.port());
+        registry.register("w-1");
+        registry.deregister("w-1");
+
+        registry.heartbeat("w-1", 3600);
+
+        assertTrue(fake.workers.isEmpty());
+    }
+}
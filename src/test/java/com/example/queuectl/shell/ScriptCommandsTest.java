@@ -0,0 +1,127 @@
+package com.example.queuectl.shell;
+
+import com.example.queuectl.model.Job;
+import com.example.queuectl.service.JobService;
+import com.example.queuectl.storage.StorePort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptCommandsTest {
+
+    /** Every call the script makes, in order: enqueue batches and routed commands alike. */
+    static final List<String> calls = new ArrayList<>();
+
+    public static class FakeWorkers {
+        public String start(int count) { calls.add("worker start " + count); return "started"; }
+        public String stop() { calls.add("worker stop"); return "stopped"; }
+    }
+
+    public static class FakeConfig {
+        public String set(String key, String value) {
+            if (key.equals("broken")) throw new IllegalStateException("config store down");
+            calls.add("config " + key + "=" + value);
+            return "ok";
+        }
+    }
+
+    public static class FakeStatus {
+        public String status(int watch) { calls.add("status"); return "pending : 2"; }
+    }
+
+    public static class FakeList {
+        public String list(String state) { calls.add("list " + state); return ""; }
+    }
+
+    public static class FakeDlq {
+        public String list() { calls.add("dlq list"); return ""; }
+        public String retry(String id) { calls.add("dlq retry " + id); return ""; }
+    }
+
+    static final class RecordingJobService extends JobService {
+        RecordingJobService() {
+            super((StorePort) Proxy.newProxyInstance(StorePort.class.getClassLoader(), new Class<?>[]{StorePort.class},
+                    (p, m, a) -> { throw new UnsupportedOperationException(m.getName()); }));
+        }
+
+        @Override
+        public Map<String, String> enqueueAll(List<Job> batch) {
+            calls.add("enqueue " + batch.stream().map(j -> j.id).toList());
+            return Map.of();
+        }
+    }
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private PrintStream stdout;
+    private ScriptCommands script;
+
+    @BeforeEach
+    void setUp() {
+        calls.clear();
+        GenericApplicationContext ctx = new GenericApplicationContext();
+        ctx.registerBean("workerCommands", FakeWorkers.class);
+        ctx.registerBean("configCommands", FakeConfig.class);
+        ctx.registerBean("statusCommands", FakeStatus.class);
+        ctx.registerBean("listCommands", FakeList.class);
+        ctx.registerBean("dlqCommands", FakeDlq.class);
+        ctx.refresh();
+        script = new ScriptCommands(ctx, new RecordingJobService());
+        stdout = System.out;
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Test
+    void enqueuesAreBatchedAndFlushedBeforeOtherCommands(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("jobs.txt");
+        Files.write(file, List.of(
+                "# setup",
+                "config set max_retries 2",
+                "enqueue '{\"id\":\"a\",\"command\":\"echo a\"}'",
+                "enqueue {\"id\":\"b\",\"command\":\"echo b\"}",
+                "",
+                "worker start 3",
+                "enqueue '{\"id\":\"c\",\"command\":\"echo c\"}'",
+                "status"));
+
+        assertEquals("✅ Executed 6 commands from " + file, script.runScript(file.toString()));
+        assertEquals(List.of("config max_retries=2", "enqueue [a, b]", "worker start 3", "enqueue [c]", "status"), calls);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("pending : 2"));
+    }
+
+    @Test
+    void badLinesAreReportedAndTheScriptGoesOn(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("bad.txt");
+        Files.write(file, List.of(
+                "enqueue '{\"id\":\"a\"}'",
+                "enqueue not json",
+                "config set broken 1",
+                "config set",
+                "frobnicate",
+                "dlq retry x"));
+
+        script.runScript(file.toString());
+        assertEquals(List.of("dlq retry x"), calls);
+        String printed = out.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("⚠ Error executing command: command is required"), printed);
+        assertTrue(printed.contains("⚠ Error executing command: config store down"), printed);
+        assertTrue(printed.contains("⚠ Invalid config set syntax"), printed);
+        assertTrue(printed.contains("⚠ Unknown or unsupported scripted command: frobnicate"), printed);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.queuectl.shell;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsCommandsTest {
+
+    @Test
+    void durationsPickTheirUnit() {
+        assertEquals("310ms", StatsCommands.millis(310));
+        assertEquals("41.2s", StatsCommands.millis(41_200));
+        assertEquals("2.3m", StatsCommands.millis(138_000));
+        assertEquals("59.9m", StatsCommands.millis(3_594_000));
+        assertEquals("4.4h", StatsCommands.millis(15_840_000));
+    }
+}
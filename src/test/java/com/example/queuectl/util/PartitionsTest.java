@@ -0,0 +1,37 @@
+package com.example.queuectl.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionsTest {
+
+    @Test
+    void rangesTileTheKeySpace() {
+        for (int count = 2; count <= 7; count++) {
+            int next = 0;
+            for (int i = 0; i < count; i++) {
+                int[] r = Partitions.range(i, count);
+                assertEquals(next, r[0], "gap or overlap before node " + i + " of " + count);
+                assertTrue(r[1] > r[0]);
+                next = r[1];
+            }
+            assertEquals(Partitions.SPACE, next);
+        }
+    }
+
+    @Test
+    void singleNodeOwnsEverything() {
+        assertArrayEquals(new int[]{0, Partitions.SPACE}, Partitions.range(0, 1));
+        assertArrayEquals(new int[]{0, Partitions.SPACE}, Partitions.range(0, 0));
+    }
+
+    @Test
+    void keysStayInTheSpace() {
+        for (String id : new String[]{"", "job-1", "5f0c2d7e-0000-4000-8000-000000000000"}) {
+            int k = Partitions.keyOf(id);
+            assertTrue(k >= 0 && k < Partitions.SPACE, id);
+        }
+        assertEquals(Partitions.keyOf("job-1"), Partitions.keyOf("job-1"));
+    }
+}